@@ -0,0 +1,108 @@
+package benchmark;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import model.AboardProgram;
+import model.Registration;
+import model.Student;
+
+/**
+ * Generates synthetic students, aboard programs and registrations for the
+ * benchmarks. The same seed always gives the same data.
+ *
+ * @author Nguyen Truong Tho
+ */
+public class DataGenerator {
+
+    private static final String[] MAJORS = {"SE", "SB", "GD", "MC"};
+    private static final String[] TIMES = {"Spring", "Summer", "Fall"};
+    private static final String[] LOCATIONS = {"Tokyo", "Seoul", "Singapore", "Bangkok", "Sydney", "London", "Paris"};
+
+    private final Random random;
+
+    /**
+     * Initializes a new instance of the DataGenerator class.
+     *
+     * @param seed The seed of the random values.
+     */
+    public DataGenerator(long seed) {
+        random = new Random(seed);
+    }
+
+    /**
+     * Gets the ID of the n-th generated student.
+     *
+     * @param n The position of the student.
+     * @return The ID of the student.
+     */
+    public static String studentId(int n) {
+        return MAJORS[n % MAJORS.length] + String.format("%06d", n / MAJORS.length);
+    }
+
+    /**
+     * Gets the ID of the n-th generated program.
+     *
+     * @param n The position of the program, below 260000.
+     * @return The ID of the program.
+     */
+    public static String programId(int n) {
+        return (char) ('A' + n / 10000 % 26) + String.format("%04d", n % 10000);
+    }
+
+    /**
+     * Generates students.
+     *
+     * @param count The number of students.
+     * @return The students.
+     */
+    public List<Student> students(int count) {
+        List<Student> list = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String id = studentId(i);
+            list.add(new Student(id, "Student " + i, id.substring(0, 2), "student" + i + "@fpt.edu.vn",
+                    "09" + String.format("%08d", i), "B" + String.format("%07d", i), "Street " + random.nextInt(1000)));
+        }
+        return list;
+    }
+
+    /**
+     * Generates aboard programs with registration windows spread over three
+     * years.
+     *
+     * @param count The number of programs, at most 260000.
+     * @return The programs.
+     */
+    public List<AboardProgram> programs(int count) {
+        List<AboardProgram> list = new ArrayList<>(count);
+        LocalDate start = LocalDate.of(2020, 1, 1);
+        for (int i = 0; i < count; i++) {
+            LocalDate from = start.plusDays(random.nextInt(3 * 365));
+            LocalDate end = from.plusDays(7 + random.nextInt(60));
+            List<String> location = new ArrayList<>(Arrays.asList(LOCATIONS[random.nextInt(LOCATIONS.length)],
+                    LOCATIONS[random.nextInt(LOCATIONS.length)]));
+            list.add(new AboardProgram(programId(i), "Program " + i, TIMES[random.nextInt(TIMES.length)], from, end,
+                    30 + random.nextInt(11), location, 1000 + random.nextInt(9000), "Content of program " + i));
+        }
+        return list;
+    }
+
+    /**
+     * Generates registrations of random students to random programs.
+     *
+     * @param count The number of registrations.
+     * @param students The number of students to choose from.
+     * @param programs The number of programs to choose from.
+     * @return The registrations.
+     */
+    public List<Registration> registrations(int count, int students, int programs) {
+        List<Registration> list = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            list.add(new Registration(studentId(random.nextInt(students)), programId(random.nextInt(programs)),
+                    LocalDate.now(), "parent" + i + "@gmail.com", "09" + String.format("%08d", i), LOCATIONS[i % LOCATIONS.length]));
+        }
+        return list;
+    }
+}
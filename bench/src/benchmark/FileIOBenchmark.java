@@ -0,0 +1,92 @@
+package benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import model.AboardProgram;
+import model.Student;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.AboardProgramCodec;
+import tools.FileIO;
+import tools.Snapshot;
+import tools.StudentCodec;
+
+/**
+ * Measures saving and loading the data files of students and programs. There
+ * are a tenth as many programs as students.
+ *
+ * @author Nguyen Truong Tho
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FileIOBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int size;
+
+    private List<Student> students;
+    private List<AboardProgram> programs;
+    private File studentsFile;
+    private File programsFile;
+    private File saveFile;
+
+    @Setup
+    public void setUp() throws IOException {
+        DataGenerator generator = new DataGenerator(42);
+        students = generator.students(size);
+        programs = generator.programs(Math.min(size / 10, 260000));
+        studentsFile = File.createTempFile("students", ".dat");
+        programsFile = File.createTempFile("programs", ".dat");
+        saveFile = File.createTempFile("save", ".dat");
+        FileIO.saveData(students, studentsFile.getPath(), new StudentCodec());
+        FileIO.saveData(programs, programsFile.getPath(), new AboardProgramCodec());
+    }
+
+    @TearDown
+    public void tearDown() {
+        studentsFile.delete();
+        programsFile.delete();
+        saveFile.delete();
+    }
+
+    @Benchmark
+    public boolean saveStudents() {
+        return FileIO.saveData(students, saveFile.getPath(), new StudentCodec());
+    }
+
+    @Benchmark
+    public List<Student> loadStudents() {
+        return FileIO.loadData(studentsFile.getPath(), new StudentCodec());
+    }
+
+    @Benchmark
+    public Snapshot<Student> openStudents() {
+        return FileIO.openSnapshot(studentsFile.getPath(), new StudentCodec());
+    }
+
+    @Benchmark
+    public boolean savePrograms() {
+        return FileIO.saveData(programs, saveFile.getPath(), new AboardProgramCodec());
+    }
+
+    @Benchmark
+    public List<AboardProgram> loadPrograms() {
+        return FileIO.loadData(programsFile.getPath(), new AboardProgramCodec());
+    }
+}
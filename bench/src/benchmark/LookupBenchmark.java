@@ -0,0 +1,73 @@
+package benchmark;
+
+import bussiness.StudentManagement;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import model.Student;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.FileIO;
+import tools.Snapshot;
+import tools.StudentCodec;
+
+/**
+ * Measures looking up a student by ID, both from a StudentManagement that
+ * holds every student and from a snapshot that decodes the record on request.
+ *
+ * @author Nguyen Truong Tho
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LookupBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int size;
+
+    private StudentManagement students;
+    private Snapshot<Student> snapshot;
+    private File studentsFile;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<Student> list = new DataGenerator(42).students(size);
+        students = new StudentManagement();
+        for (Student st : list) {
+            students.add(st);
+        }
+        studentsFile = File.createTempFile("students", ".dat");
+        FileIO.saveData(list, studentsFile.getPath(), new StudentCodec());
+        snapshot = FileIO.openSnapshot(studentsFile.getPath(), new StudentCodec());
+    }
+
+    @TearDown
+    public void tearDown() {
+        studentsFile.delete();
+    }
+
+    @Benchmark
+    public Student getStudent() {
+        return students.get(DataGenerator.studentId(ThreadLocalRandom.current().nextInt(size)));
+    }
+
+    @Benchmark
+    public Student getStudentFromSnapshot() {
+        return snapshot.get(DataGenerator.studentId(ThreadLocalRandom.current().nextInt(size)));
+    }
+}
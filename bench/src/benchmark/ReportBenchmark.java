@@ -0,0 +1,100 @@
+package benchmark;
+
+import bussiness.RegistrationFormManagement;
+import bussiness.StudentManagement;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import model.Student;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.RegistrationStore;
+
+/**
+ * Measures the registration reports and the rendering of the student table.
+ * Every student registers for two programs on average, and there are a
+ * hundredth as many programs as students. The reports write to a stream that
+ * discards its output.
+ *
+ * @author Nguyen Truong Tho
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ReportBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int size;
+
+    private StudentManagement students;
+    private RegistrationFormManagement registrations;
+    private List<Student> studentList;
+    private int programCount;
+    private File registrationsFile;
+    private PrintStream out;
+
+    @Setup
+    public void setUp() throws IOException {
+        DataGenerator generator = new DataGenerator(42);
+        studentList = generator.students(size);
+        students = new StudentManagement();
+        for (Student st : studentList) {
+            students.add(st);
+        }
+        programCount = Math.max(1, size / 100);
+        registrationsFile = File.createTempFile("registrations", ".dat");
+        registrationsFile.delete();
+        new RegistrationStore(registrationsFile.getPath()).append(generator.registrations(size * 2, size, programCount));
+        registrations = new RegistrationFormManagement(registrationsFile.getPath());
+        out = System.out;
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+            }
+        }));
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(out);
+        registrationsFile.delete();
+    }
+
+    @Benchmark
+    public void printStudent2Program() {
+        registrations.printStudent2Program(students);
+    }
+
+    @Benchmark
+    public int countStudent() {
+        String programId = DataGenerator.programId(ThreadLocalRandom.current().nextInt(programCount));
+        return registrations.getIndex().countStudents(programId);
+    }
+
+    @Benchmark
+    public void showStudentTable() {
+        students.showStudentTable(new ArrayList<>(studentList));
+    }
+}
@@ -1,38 +1,151 @@
 package bussiness;
 
 import tools.InputFormatter;
+import java.io.IOException;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Date;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import java.util.List;
 import model.AboardProgram;
 import tools.FileIO;
+import tools.Journal;
+import tools.RecordMap;
+import tools.AboardProgramCodec;
+import tools.Dates;
+import tools.Validator;
 
 /**
- * Represents a management class for AboardProgram objects.
+ * Represents a management class for AboardProgram objects. The programs are
+ * kept in a concurrent record map, so they can be read from several threads
+ * without locking; changes to the search indexes are made one at a time.
  *
  * @author Nguyen Truong Tho
  */
-public class AboardProgramManagement extends HashMap<String, AboardProgram> {
+public class AboardProgramManagement {
 
     private List<String> timeList = Arrays.asList("January", "March", "May", "July", "September", "November");
     private final String programIdRegex = "^([a-zA-Z])[0-9]{3,4}$";
     private final String programExc = "Aboard Program's ID must be valid (include 1 letter and 3-4 digit!";
-    private boolean isSaved = true;
+    private volatile boolean isSaved = true;
     private final String programsFile = "src\\file\\programs.dat";
+    private final Journal<AboardProgram> journal = new Journal<>("src\\file\\programs.log", new AboardProgramCodec());
+    private final int compactSize = 1000;
+    private final RecordMap<AboardProgram> programs;
+    private final Object saveLock = new Object();
+    private Runnable onChange;
+    private ProgramIndex index;
+    private final int pageSize = 5;
 
     /**
-     * Initializes a new instance of the AboardProgramManagement class. Loads
-     * existing programs from data file.
+     * Initializes a new instance of the AboardProgramManagement class. Opens
+     * the data file, whose programs are read on first use, and applies the
+     * changes journaled after the last save.
      */
     public AboardProgramManagement() {
-        List<AboardProgram> programs = FileIO.loadData(programsFile);
-        for (AboardProgram ap : programs) {
-            this.put(ap.getId(), ap);
+        programs = new RecordMap<>(FileIO.openSnapshot(programsFile, new AboardProgramCodec()));
+        List<AboardProgram> changes = journal.replay();
+        for (AboardProgram ap : changes) {
+            programs.put(ap.getId(), ap);
         }
+        if (!changes.isEmpty()) {
+            setIsSaved(false);
+        }
+    }
+
+    /**
+     * Gets the AboardProgram with an ID, reading it from the data file on first
+     * use.
+     *
+     * @param id The ID of the AboardProgram.
+     * @return The AboardProgram, or null if it does not exist.
+     */
+    public AboardProgram get(String id) {
+        return programs.get(id);
+    }
+
+    /**
+     * Checks whether an AboardProgram with an ID exists.
+     *
+     * @param id The ID of the AboardProgram.
+     * @return true if the AboardProgram exists; otherwise, false.
+     */
+    public boolean containsKey(String id) {
+        return programs.containsKey(id);
+    }
+
+    /**
+     * Checks whether there are no AboardPrograms.
+     *
+     * @return true if there are no AboardPrograms; otherwise, false.
+     */
+    public boolean isEmpty() {
+        return programs.isEmpty();
+    }
+
+    /**
+     * Gets the number of AboardPrograms.
+     *
+     * @return The number of AboardPrograms.
+     */
+    public int size() {
+        return programs.size();
+    }
+
+    /**
+     * Gets a copy of all AboardPrograms.
+     *
+     * @return The read-only list of AboardPrograms.
+     */
+    public List<AboardProgram> values() {
+        return programs.values();
+    }
+
+    /**
+     * Adds an AboardProgram if its ID is not taken yet, and keeps the search
+     * indexes up to date.
+     *
+     * @param ap The AboardProgram object.
+     * @return true if the AboardProgram has been added; false if the ID is
+     * taken.
+     */
+    public boolean add(AboardProgram ap) {
+        if (!programs.add(ap.getId(), ap)) {
+            return false;
+        }
+        synchronized (this) {
+            if (index != null) {
+                index.add(ap);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Changes an AboardProgram and keeps the search indexes up to date. The
+     * change is made to a copy that then replaces the AboardProgram, so
+     * readers see either the old or the new one.
+     *
+     * @param id The ID of the AboardProgram.
+     * @param change The change to make to the AboardProgram.
+     * @return The changed AboardProgram, or null if it does not exist.
+     */
+    public synchronized AboardProgram update(String id, Consumer<AboardProgram> change) {
+        AboardProgram ap = programs.update(id, old -> {
+            AboardProgram copy = new AboardProgram(old);
+            change.accept(copy);
+            return copy;
+        });
+        if (ap != null && index != null) {
+            index.add(ap);
+        }
+        return ap;
     }
 
     /**
@@ -53,6 +166,24 @@ public class AboardProgramManagement extends HashMap<String, AboardProgram> {
         this.isSaved = isSaved;
     }
 
+    /**
+     * Gets the months a program can take place in.
+     *
+     * @return The read-only list of months.
+     */
+    public List<String> getTimeList() {
+        return Collections.unmodifiableList(timeList);
+    }
+
+    /**
+     * Sets the action to run after each change has been journaled.
+     *
+     * @param onChange The action to run, or null for none.
+     */
+    public void setOnChange(Runnable onChange) {
+        this.onChange = onChange;
+    }
+
     /**
      * Prints the details of an AboardProgram.
      *
@@ -66,6 +197,7 @@ public class AboardProgramManagement extends HashMap<String, AboardProgram> {
         showLocation(ap);
         System.out.printf("4. Cost: %.0f$\n", ap.getCost());
         System.out.println("5. Content: " + ap.getContent());
+        System.out.println("6. Capacity: " + (ap.getCapacity() > 0 ? ap.getCapacity() + " students" : "unlimited"));
     }
 
     /**
@@ -84,7 +216,8 @@ public class AboardProgramManagement extends HashMap<String, AboardProgram> {
     }
 
     /**
-     * Adds a new AboardProgram to the management class.
+     * Adds a new AboardProgram to the management class. The values are
+     * entered by the user.
      *
      * @throws ParseException if there is an error parsing the input.
      * @throws Exception if there is an error during program addition.
@@ -92,95 +225,187 @@ public class AboardProgramManagement extends HashMap<String, AboardProgram> {
     public void addProgram() throws ParseException, Exception {
         String id = InputFormatter.getString("Enter Program's ID: ", programExc, programIdRegex);
         if (!this.containsKey(id)) {
-            String name = InputFormatter.getStringNotNull("Enter Program's Name: ");
-            String time = InputFormatter.getStringInList("Enter time: ", timeList);
-            Date fromRegistrationDate = InputFormatter.getDate("Enter From Registration Date: ");
-            Date endRegistrationDate = InputFormatter.getDateAfter("Enter End Registration Date: ", fromRegistrationDate);
-            int days = InputFormatter.getInt("Enter days: ", "Days must be from 30 to 40 days!", 30, 40);
+            ProgramInput in = new ProgramInput();
+            in.setId(id);
+            in.setName(InputFormatter.getStringNotNull("Enter Program's Name: "));
+            in.setTime(InputFormatter.getStringInList("Enter time: ", timeList));
+            in.setFromRegistrationDate(InputFormatter.getDate("Enter From Registration Date: "));
+            in.setEndRegistrationDate(InputFormatter.getDateAfter("Enter End Registration Date: ", in.getFromRegistrationDate()));
+            in.setDays(InputFormatter.getInt("Enter days: ", "Days must be from 30 to 40 days!", 30, 40));
             System.out.println("Enter location (enter to stop inputing):");
             List<String> location = InputFormatter.getStringList("Location: ");
             while (location.isEmpty()) {
                 location = InputFormatter.getStringList("Enter location: ");
             }
-            double cost = InputFormatter.getDouble("Enter Cost: ", "Cost must be greater than 0.", 0, Double.MAX_VALUE);
-            String content = InputFormatter.getStringNotNull("Enter Content: ");
-            this.put(id, new AboardProgram(id, name, time, fromRegistrationDate, endRegistrationDate, days, location, cost, content));
-            System.out.println(name + " has been added!");
-            setIsSaved(false);
+            in.setLocation(location);
+            in.setCost(InputFormatter.getDouble("Enter Cost: ", "Cost must be greater than 0.", 0, Double.MAX_VALUE));
+            in.setContent(InputFormatter.getStringNotNull("Enter Content: "));
+            in.setCapacity(InputFormatter.getInt("Enter capacity (0 for unlimited): ", "Capacity must be from 0 to " + Integer.MAX_VALUE, 0, Integer.MAX_VALUE));
+            Result<AboardProgram> result = addProgram(in);
+            if (result.isSuccess()) {
+                System.out.println(in.getName() + " has been added!");
+            } else {
+                System.out.println(result.getError());
+            }
         } else {
             System.out.println("Program's ID already exist!");
         }
     }
 
     /**
-     * Updates an existing AboardProgram in the management class.
+     * Adds a new AboardProgram.
+     *
+     * @param in The values of the AboardProgram.
+     * @return The added AboardProgram, or the reason the values are not valid
+     * or the ID is taken.
+     */
+    public Result<AboardProgram> addProgram(ProgramInput in) {
+        String error = checkNewProgram(in).getMessage();
+        if (error != null) {
+            return Result.fail(error);
+        }
+        AboardProgram ap = toProgram(in);
+        if (!addProgram(ap)) {
+            return Result.fail("Program's ID already exist!");
+        }
+        return Result.ok(ap);
+    }
+
+    /**
+     * Adds an AboardProgram whose ID is not taken yet and journals it.
+     *
+     * @param ap The AboardProgram object.
+     * @return true if the AboardProgram has been added; false if the ID is
+     * taken.
+     */
+    public boolean addProgram(AboardProgram ap) {
+        if (!this.add(ap)) {
+            return false;
+        }
+        logChange(ap);
+        return true;
+    }
+
+    /**
+     * Changes an existing AboardProgram and journals it.
+     *
+     * @param id The ID of the AboardProgram.
+     * @param change The change to make to the AboardProgram.
+     * @return The changed AboardProgram, or null if it does not exist.
+     */
+    public AboardProgram updateProgram(String id, Consumer<AboardProgram> change) {
+        AboardProgram ap = this.update(id, change);
+        if (ap != null) {
+            logChange(ap);
+        }
+        return ap;
+    }
+
+    /**
+     * Updates an existing AboardProgram in the management class. The values
+     * are entered by the user; an empty value keeps the current one.
      *
      * @throws Exception if there is an error during program update.
      */
     public void updateProgram() throws Exception {
         String id = InputFormatter.getString("Enter Program's ID: ", programExc, programIdRegex);
         if (this.containsKey(id)) {
-            String name = InputFormatter.getString("Enter Program's Name: ");
-            String time = InputFormatter.getString("Enter time: ");
-            String fromRegistrationDate = InputFormatter.getString("Enter From Registration Date: ");
-            String endRegistrationDate = InputFormatter.getString("Enter End Registration Date: ");
-            String days = InputFormatter.getString("Enter days: ");
-            List<String> location = InputFormatter.getStringList("Enter location: ");
-            String cost = InputFormatter.getString("Enter Cost: ");
-            String content = InputFormatter.getString("Enter Content: ");
-            SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy");
+            List<String> row = new ArrayList<>();
+            row.add(id);
+            row.add(InputFormatter.getString("Enter Program's Name: "));
+            row.add(InputFormatter.getString("Enter time: "));
+            row.add(InputFormatter.getString("Enter From Registration Date: "));
+            row.add(InputFormatter.getString("Enter End Registration Date: "));
+            row.add(InputFormatter.getString("Enter days: "));
+            row.add(String.join(";", InputFormatter.getStringList("Enter location: ")));
+            row.add(InputFormatter.getString("Enter Cost: "));
+            row.add(InputFormatter.getString("Enter Content: "));
+            row.add(InputFormatter.getString("Enter capacity (0 for unlimited): "));
+            Result<AboardProgram> result;
             try {
-                if (!name.isEmpty() && !name.matches("^[a-zA-Z0-9 ]+$")) {
-                    throw new Exception("Name must only include letters and numbers!");
-                }
-                if (!time.isEmpty() && !timeList.contains(time.substring(0, 1) + time.substring(1))) {
-                    throw new Exception("Only accept as: January, March, May, July, September, November!");
-                }
-                if (!fromRegistrationDate.isEmpty() && !InputFormatter.isValidDate(fromRegistrationDate)) {
-                    throw new Exception("Wrong date format!");
-                }
-                if (!endRegistrationDate.isEmpty() && !InputFormatter.isValidDate(endRegistrationDate)) {
-                    throw new Exception("Wrong date format!");
-                }
-                if (!days.isEmpty() && (Integer.parseInt(days) < 30 || Integer.parseInt(days) > 40)) {
-                    throw new Exception("Days must from 30 to 40 days!");
-                }
-                if (!cost.isEmpty() && Double.parseDouble(cost) < 0) {
-                    throw new Exception("Cost must greater than 0!");
-                }
+                result = updateProgram(toInput(row));
             } catch (Exception e) {
-                System.out.println("Update failure! " + e.getMessage());
-            } finally {
+                result = Result.fail(e.getMessage());
+            }
+            if (result.isSuccess()) {
+                System.out.println("Update successful!");
+            } else {
+                System.out.println("Update failure! " + result.getError());
+            }
+        } else {
+            System.out.println("Program does not exist!");
+        }
+    }
+
+    /**
+     * Updates an existing AboardProgram. A value that is null, or an empty
+     * string or list, keeps the current one. Nothing is changed if a value is
+     * not valid.
+     *
+     * @param in The ID of the AboardProgram and the new values.
+     * @return The updated AboardProgram, or the reason it cannot be updated.
+     */
+    public Result<AboardProgram> updateProgram(ProgramInput in) {
+        if (in.getId() == null || !this.containsKey(in.getId())) {
+            return Result.fail("Program does not exist!");
+        }
+        String name = in.getName() == null ? "" : in.getName().trim();
+        String time = in.getTime() == null || in.getTime().isEmpty() ? null : findTime(in.getTime());
+        Validator v = new Validator()
+                .check(name.isEmpty() || Validator.isName(name, true), "name", "Name must only include letters and numbers!")
+                .check(time != null || in.getTime() == null || in.getTime().isEmpty(), "time", "Only accept as: January, March, May, July, September, November!")
+                .check(in.getDays() == null || (in.getDays() >= 30 && in.getDays() <= 40), "days", "Days must from 30 to 40 days!")
+                .check(in.getCost() == null || in.getCost() >= 0, "cost", "Cost must greater than 0!")
+                .check(in.getCapacity() == null || in.getCapacity() >= 0, "capacity", "Capacity must be a number from 0!");
+        if (!v.isValid()) {
+            return Result.fail(v.getMessage());
+        }
+        String newTime = time;
+        AboardProgram updated;
+        // The registration dates are checked against the current ones and
+        // changed under the same lock, so that two updates cannot leave the
+        // end date before the from date.
+        synchronized (this) {
+            AboardProgram old = this.get(in.getId());
+            if (old == null) {
+                return Result.fail("Program does not exist!");
+            }
+            LocalDate from = in.getFromRegistrationDate() == null ? old.getFromRegistrationDate() : in.getFromRegistrationDate();
+            LocalDate end = in.getEndRegistrationDate() == null ? old.getEndRegistrationDate() : in.getEndRegistrationDate();
+            if (end.isBefore(from)) {
+                return Result.fail("End registration date must be after the from registration date!");
+            }
+            updated = this.update(old.getId(), ap -> {
                 if (!name.isEmpty()) {
-                    this.get(id).setName(name);
-                }
-                if (!time.isEmpty()) {
-                    this.get(id).setTime(time);
+                    ap.setName(name);
                 }
-                if (!fromRegistrationDate.isEmpty()) {
-                    this.get(id).setFromRegistrationDate(sdf.parse(fromRegistrationDate));
+                if (newTime != null) {
+                    ap.setTime(newTime);
                 }
-                if (!endRegistrationDate.isEmpty()) {
-                    this.get(id).setEndRegistrationDate(sdf.parse(endRegistrationDate));
+                ap.setFromRegistrationDate(from);
+                ap.setEndRegistrationDate(end);
+                if (in.getDays() != null) {
+                    ap.setDays(in.getDays());
                 }
-                if (!days.isEmpty()) {
-                    this.get(id).setDays(Integer.parseInt(days));
+                if (in.getLocation() != null && !in.getLocation().isEmpty()) {
+                    ap.setLocation(in.getLocation());
                 }
-                if (!location.isEmpty()) {
-                    this.get(id).setLocation(location);
+                if (in.getCost() != null) {
+                    ap.setCost(in.getCost());
                 }
-                if (!cost.isEmpty()) {
-                    this.get(id).setCost(Double.parseDouble(cost));
+                if (in.getContent() != null && !in.getContent().isEmpty()) {
+                    ap.setContent(in.getContent());
                 }
-                if (!content.isEmpty()) {
-                    this.get(id).setContent(content);
+                if (in.getCapacity() != null) {
+                    ap.setCapacity(in.getCapacity());
                 }
-                System.out.println("Update successful!");
-                setIsSaved(false);
-            }
-        } else {
-            System.out.println("Program does not exist!");
+            });
         }
+        if (updated == null) {
+            return Result.fail("Program does not exist!");
+        }
+        logChange(updated);
+        return Result.ok(updated);
     }
 
     /**
@@ -195,6 +420,312 @@ public class AboardProgramManagement extends HashMap<String, AboardProgram> {
         }
     }
 
+    /**
+     * Imports AboardPrograms from a CSV file whose name is entered by the
+     * user.
+     */
+    public void importPrograms() {
+        String fileName = InputFormatter.getStringNotNull("Enter CSV file: ");
+        importPrograms(fileName);
+    }
+
+    /**
+     * Imports AboardPrograms from a CSV file with the columns id, name, time,
+     * from registration date, end registration date, days, locations separated
+     * by semicolons, cost, content and an optional capacity. Rows that are not valid, or whose ID is
+     * already taken, are reported and skipped. The accepted programs are added
+     * together and saved once.
+     *
+     * @param fileName The name of the CSV file.
+     * @return The number of programs imported.
+     */
+    public int importPrograms(String fileName) {
+        Set<String> ids = new HashSet<>();
+        CsvImporter<AboardProgram> importer = new CsvImporter<AboardProgram>() {
+            @Override
+            protected AboardProgram parse(List<String> row) throws Exception {
+                return parseProgram(row);
+            }
+
+            @Override
+            protected String accept(AboardProgram ap) {
+                if (containsKey(ap.getId()) || !ids.add(ap.getId())) {
+                    return "Program's ID already exist!";
+                }
+                return null;
+            }
+        };
+        List<AboardProgram> list;
+        try {
+            list = importer.read(fileName);
+        } catch (IOException e) {
+            System.out.println("Error: " + e.getMessage());
+            return 0;
+        }
+        int count = 0;
+        for (AboardProgram ap : list) {
+            if (this.add(ap)) {
+                count++;
+            }
+        }
+        if (count > 0) {
+            setIsSaved(false);
+            saveProgram();
+        }
+        System.out.println(count + " programs have been imported, " + (importer.getErrorCount() + list.size() - count) + " rows rejected.");
+        return count;
+    }
+
+    /**
+     * Parses and validates the fields of an AboardProgram: id, name, time,
+     * from registration date, end registration date, days, locations
+     * separated by semicolons, cost, content and an optional capacity. It can
+     * be called from several threads at once.
+     *
+     * @param row The fields.
+     * @return The AboardProgram.
+     * @throws Exception if the fields are not valid, with the reason as
+     * message.
+     */
+    public AboardProgram parseProgram(List<String> row) throws Exception {
+        if (row.size() != 9 && row.size() != 10) {
+            throw new Exception("Expected 9 or 10 columns: id, name, time, from registration date, end registration date, days, locations, cost, content, capacity");
+        }
+        ProgramInput in = toInput(row);
+        String error = checkNewProgram(in).getMessage();
+        if (error != null) {
+            throw new Exception(error);
+        }
+        return toProgram(in);
+    }
+
+    /**
+     * Converts the fields of an AboardProgram to its values: id, name, time,
+     * from registration date, end registration date, days, locations
+     * separated by semicolons, cost, content and capacity. An empty field
+     * gives no value. Only the format of the fields is checked.
+     *
+     * @param row The fields.
+     * @return The values of the AboardProgram.
+     * @throws Exception if a date or a number is not well formed.
+     */
+    public ProgramInput toInput(List<String> row) throws Exception {
+        ProgramInput in = new ProgramInput();
+        in.setId(field(row, 0));
+        in.setName(field(row, 1));
+        in.setTime(field(row, 2));
+        for (int i = 3; i <= 4; i++) {
+            String date = field(row, i);
+            if (!date.isEmpty() && !Validator.isDate(date)) {
+                throw new Exception("Wrong date format, the date must be in dd/mm/yyyy format!");
+            }
+        }
+        in.setFromRegistrationDate(Dates.parse(field(row, 3)));
+        in.setEndRegistrationDate(Dates.parse(field(row, 4)));
+        try {
+            in.setDays(field(row, 5).isEmpty() ? null : Integer.valueOf(field(row, 5)));
+            in.setCost(field(row, 7).isEmpty() ? null : Double.valueOf(field(row, 7)));
+        } catch (NumberFormatException e) {
+            throw new Exception("Days and cost must be numbers!");
+        }
+        List<String> location = new ArrayList<>();
+        for (String l : field(row, 6).split(";")) {
+            if (!l.trim().isEmpty()) {
+                location.add(l.trim());
+            }
+        }
+        in.setLocation(location);
+        in.setContent(field(row, 8));
+        if (!field(row, 9).isEmpty()) {
+            if (!Validator.isNumber(field(row, 9))) {
+                throw new Exception("Capacity must be a number from 0!");
+            }
+            in.setCapacity(Integer.valueOf(field(row, 9)));
+        }
+        return in;
+    }
+
+    private static String field(List<String> row, int i) {
+        return i < row.size() && row.get(i) != null ? row.get(i).trim() : "";
+    }
+
+    /**
+     * Checks the values of a new AboardProgram, without looking at the other
+     * programs.
+     *
+     * @param in The values of the AboardProgram.
+     * @return The Validator with the errors of the values.
+     */
+    private Validator checkNewProgram(ProgramInput in) {
+        LocalDate from = in.getFromRegistrationDate();
+        LocalDate end = in.getEndRegistrationDate();
+        return new Validator()
+                .check(Validator.isProgramId(in.getId()), "id", programExc)
+                .check(in.getName() != null && !in.getName().isEmpty(), "name", "Name must not be empty!")
+                .check(in.getTime() != null && findTime(in.getTime()) != null, "time", "Time only accept as: " + timeList)
+                .check(from != null && end != null, "registration dates", "Wrong date format, the date must be in dd/mm/yyyy format!")
+                .check(from == null || end == null || !end.isBefore(from), "end registration date",
+                        "End registration date must be after " + Dates.format(from))
+                .check(in.getDays() != null && in.getDays() >= 30 && in.getDays() <= 40, "days", "Days must be from 30 to 40 days!")
+                .check(in.getLocation() != null && !in.getLocation().isEmpty(), "location", "A program must have at least one location!")
+                .check(in.getCost() != null && in.getCost() >= 0, "cost", "Cost must be greater than 0.")
+                .check(in.getContent() != null && !in.getContent().isEmpty(), "content", "Content must not be empty!")
+                .check(in.getCapacity() == null || in.getCapacity() >= 0, "capacity", "Capacity must be a number from 0!");
+    }
+
+    private String findTime(String time) {
+        for (String t : timeList) {
+            if (t.equalsIgnoreCase(time)) {
+                return t;
+            }
+        }
+        return null;
+    }
+
+    private AboardProgram toProgram(ProgramInput in) {
+        return new AboardProgram(in.getId(), in.getName(), findTime(in.getTime()), in.getFromRegistrationDate(), in.getEndRegistrationDate(),
+                in.getDays(), new ArrayList<>(in.getLocation()), in.getCost(), in.getContent(), in.getCapacity() == null ? 0 : in.getCapacity());
+    }
+
+    /**
+     * Gets the search indexes, building them on first use.
+     *
+     * @return The program indexes.
+     */
+    private synchronized ProgramIndex getIndex() {
+        if (index == null) {
+            ProgramIndex built = new ProgramIndex(timeList);
+            for (AboardProgram ap : this.values()) {
+                built.add(ap);
+            }
+            index = built;
+        }
+        return index;
+    }
+
+    /**
+     * Finds the AboardPrograms that match a query, in ascending order of ID.
+     * The programs are read one by one as the stream is consumed.
+     *
+     * @param q The query.
+     * @return The stream of matching AboardPrograms.
+     */
+    public Stream<AboardProgram> query(ProgramQuery q) {
+        List<String> ids;
+        synchronized (this) {
+            ids = new ArrayList<>(getIndex().find(q));
+        }
+        return ids.stream().map(this::get);
+    }
+
+    /**
+     * Finds one page of the AboardPrograms that match a query.
+     *
+     * @param q The query.
+     * @param page The number of the page, starting from 0.
+     * @param size The number of AboardPrograms on a page.
+     * @return The AboardPrograms on the page.
+     */
+    public List<AboardProgram> query(ProgramQuery q, int page, int size) {
+        return query(q).skip((long) page * size).limit(size).collect(Collectors.toList());
+    }
+
+    /**
+     * Gets the AboardPrograms that accept registration on a date, in ascending
+     * order of ID.
+     *
+     * @param date The date.
+     * @return The AboardPrograms open for registration on the date.
+     */
+    public List<AboardProgram> getOpenPrograms(LocalDate date) {
+        List<String> ids;
+        synchronized (this) {
+            ids = new ArrayList<>(getIndex().findOpen(date));
+        }
+        return ids.stream().map(this::get).collect(Collectors.toList());
+    }
+
+    /**
+     * Checks whether an AboardProgram accepts registration on a date.
+     *
+     * @param id The ID of the AboardProgram.
+     * @param date The date.
+     * @return true if the AboardProgram accepts registration on the date;
+     * otherwise, false.
+     */
+    public synchronized boolean isOpen(String id, LocalDate date) {
+        return getIndex().isOpen(id, date);
+    }
+
+    /**
+     * Displays the AboardPrograms that accept registration on a date.
+     *
+     * @throws ParseException if there is an error parsing the input.
+     */
+    public void displayOpenProgram() throws ParseException {
+        LocalDate date = InputFormatter.getDate("Enter Date: ");
+        List<AboardProgram> open = getOpenPrograms(date);
+        if (!open.isEmpty()) {
+            System.out.println("-------------------------------------------------------------------");
+            for (AboardProgram ap : open) {
+                printAboard(ap);
+                System.out.println("-------------------------------------------------------------------");
+            }
+        } else {
+            System.out.println("No programs accept registration on " + Dates.format(date) + "!");
+        }
+    }
+
+    /**
+     * Searches for AboardPrograms by name, time, location, registration date
+     * and cost, and displays them page by page.
+     *
+     * @throws ParseException if there is an error parsing the input.
+     */
+    public void searchProgramByFilter() throws ParseException {
+        System.out.println("Leave a criterion empty to skip it.");
+        ProgramQuery q = new ProgramQuery();
+        String name = InputFormatter.getString("Enter Program's Name (or part of it): ");
+        if (!name.isEmpty()) {
+            q.setName(name, false);
+        }
+        String time = InputFormatter.getString("Enter time: ");
+        while (!time.isEmpty() && !timeList.stream().anyMatch(time::equalsIgnoreCase)) {
+            System.out.println("Only accept as: " + timeList);
+            time = InputFormatter.getString("Enter time: ");
+        }
+        if (!time.isEmpty()) {
+            q.setTime(time);
+        }
+        String location = InputFormatter.getString("Enter location: ");
+        if (!location.isEmpty()) {
+            q.setLocation(location);
+        }
+        q.setOpenDate(InputFormatter.getOptionalDate("Enter a date open for registration: "));
+        q.setMinCost(InputFormatter.getOptionalDouble("Enter Min Cost: ", "Cost must be greater than 0.", 0, Double.MAX_VALUE));
+        q.setMaxCost(InputFormatter.getOptionalDouble("Enter Max Cost: ", "Cost must be greater than 0.", 0, Double.MAX_VALUE));
+        List<String> ids;
+        synchronized (this) {
+            ids = new ArrayList<>(getIndex().find(q));
+        }
+        if (ids.isEmpty()) {
+            System.out.println("No programs match the search!");
+            return;
+        }
+        int pages = (ids.size() + pageSize - 1) / pageSize;
+        for (int page = 0; page < pages; page++) {
+            System.out.println("-------------------------------------------------------------------");
+            for (String id : ids.subList(page * pageSize, Math.min(ids.size(), (page + 1) * pageSize))) {
+                printAboard(this.get(id));
+                System.out.println("-------------------------------------------------------------------");
+            }
+            System.out.println("Page " + (page + 1) + "/" + pages + " - " + ids.size() + " program(s) found.");
+            if (page + 1 < pages && !InputFormatter.getBoolean("Show next page? (Y/N): ")) {
+                break;
+            }
+        }
+    }
+
     /**
      * Displays the locations of an AboardProgram.
      *
@@ -208,10 +739,45 @@ public class AboardProgramManagement extends HashMap<String, AboardProgram> {
     }
 
     /**
-     * Saves the AboardPrograms to a data file.
+     * Writes a changed AboardProgram to the journal. The journal is compacted
+     * into the data file once it grows too large.
+     *
+     * @param ap The changed AboardProgram object.
+     */
+    private void logChange(AboardProgram ap) {
+        synchronized (this) {
+            setIsSaved(false);
+            try {
+                journal.append(ap);
+            } catch (IOException e) {
+                System.out.println("Error: " + e.getMessage());
+            }
+        }
+        if (journal.size() >= compactSize) {
+            saveProgram();
+        }
+        if (onChange != null) {
+            onChange.run();
+        }
+    }
+
+    /**
+     * Saves the AboardPrograms to a data file and clears the journal.
+     * Changes made while the file is being written stay in the journal.
      */
     public void saveProgram() {
-        FileIO.saveData(new ArrayList(this.values()), programsFile);
-        setIsSaved(true);
+        synchronized (saveLock) {
+            List<AboardProgram> list;
+            synchronized (this) {
+                list = this.values();
+                journal.rotate();
+                setIsSaved(true);
+            }
+            if (list.isEmpty() || FileIO.saveData(list, programsFile, new AboardProgramCodec())) {
+                journal.dropRotated();
+            } else {
+                setIsSaved(false);
+            }
+        }
     }
 }
@@ -0,0 +1,94 @@
+package bussiness;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import model.Registration;
+
+/**
+ * Represents the result of a batch of registrations: the forms that have been
+ * saved, the requests that failed with their reasons and the time it took.
+ *
+ * @author Nguyen Truong Tho
+ */
+public class BatchReport {
+
+    private final List<String> successes = new ArrayList<>();
+    private final List<String> failures = new ArrayList<>();
+    private long elapsedNanos;
+
+    /**
+     * Records a registration whose form has been saved.
+     *
+     * @param r The registration.
+     */
+    public synchronized void addSuccess(Registration r) {
+        successes.add(r.getFormName());
+    }
+
+    /**
+     * Records a registration request that failed.
+     *
+     * @param r The registration request.
+     * @param reason The reason it failed.
+     */
+    public synchronized void addFailure(Registration r, String reason) {
+        failures.add(r.getStudentId() + " -> " + r.getProgramId() + ": " + reason);
+    }
+
+    /**
+     * Get the names of the saved forms
+     *
+     * @return the names of the saved forms
+     */
+    public synchronized List<String> getSuccesses() {
+        return Collections.unmodifiableList(new ArrayList<>(successes));
+    }
+
+    /**
+     * Get the failed requests with their reasons
+     *
+     * @return the failed requests with their reasons
+     */
+    public synchronized List<String> getFailures() {
+        return Collections.unmodifiableList(new ArrayList<>(failures));
+    }
+
+    /**
+     * Get the value of elapsedNanos
+     *
+     * @return the time the batch took in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Set the value of elapsedNanos
+     *
+     * @param elapsedNanos the time the batch took in nanoseconds
+     */
+    public void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Gets the number of forms saved per second.
+     *
+     * @return The throughput of the batch.
+     */
+    public synchronized double getThroughput() {
+        return elapsedNanos == 0 ? 0 : successes.size() * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Displays the failed requests and the summary of the batch.
+     */
+    public synchronized void print() {
+        for (String failure : failures) {
+            System.out.println(failure);
+        }
+        System.out.printf("Registered: %d   Failed: %d   Time: %.0f ms   Throughput: %.1f forms/s\n",
+                successes.size(), failures.size(), elapsedNanos / 1e6, getThroughput());
+    }
+}
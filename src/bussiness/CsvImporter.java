@@ -0,0 +1,125 @@
+package bussiness;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import tools.CsvReader;
+
+/**
+ * Reads records from a CSV file for a bulk import. The file is read in chunks;
+ * the rows of a chunk are parsed and validated in parallel, then checked one
+ * by one in file order against the existing records and the rows before them.
+ * Every rejected row is reported with its line number.
+ *
+ * @author Nguyen Truong Tho
+ * @param <T> The type of the records.
+ */
+public abstract class CsvImporter<T> {
+
+    private final int chunkSize = 10000;
+    private int errorCount = 0;
+
+    /**
+     * Parses and validates a row. It is called from several threads at once,
+     * so it must not change any shared state.
+     *
+     * @param row The fields of the row.
+     * @return The record of the row.
+     * @throws Exception if the row is not valid, with the reason as message.
+     */
+    protected abstract T parse(List<String> row) throws Exception;
+
+    /**
+     * Checks a parsed record against the existing records and the records
+     * accepted before it, and remembers it if it is accepted.
+     *
+     * @param obj The record.
+     * @return The reason the record is rejected, or null if it is accepted.
+     */
+    protected abstract String accept(T obj);
+
+    /**
+     * Checks whether a row is the header of the file.
+     *
+     * @param row The fields of the first row.
+     * @return true if the row is a header; otherwise, false.
+     */
+    protected boolean isHeader(List<String> row) {
+        return row.get(0).equalsIgnoreCase("id");
+    }
+
+    /**
+     * Gets the number of rows rejected by the last import.
+     *
+     * @return The number of rejected rows.
+     */
+    public int getErrorCount() {
+        return errorCount;
+    }
+
+    /**
+     * Reads the accepted records of a CSV file. The reason each row is
+     * rejected is displayed.
+     *
+     * @param fileName The name of the CSV file.
+     * @return The accepted records in file order.
+     * @throws IOException if there is an error during reading.
+     */
+    public List<T> read(String fileName) throws IOException {
+        List<T> list = new ArrayList<>();
+        errorCount = 0;
+        try (CsvReader reader = new CsvReader(fileName)) {
+            List<Row> chunk = new ArrayList<>(chunkSize);
+            List<String> fields = reader.readRow();
+            if (fields != null && isHeader(fields)) {
+                fields = reader.readRow();
+            }
+            while (fields != null) {
+                chunk.add(new Row(reader.getLineNumber(), fields));
+                fields = reader.readRow();
+                if (chunk.size() == chunkSize || fields == null) {
+                    importChunk(chunk, list);
+                    chunk.clear();
+                }
+            }
+        }
+        return list;
+    }
+
+    private void importChunk(List<Row> chunk, List<T> list) {
+        chunk.parallelStream().forEach(row -> {
+            try {
+                row.value = parse(row.fields);
+            } catch (Exception e) {
+                row.error = e.getMessage();
+            }
+        });
+        for (Row row : chunk) {
+            if (row.error == null) {
+                row.error = accept(row.value);
+            }
+            if (row.error == null) {
+                list.add(row.value);
+            } else {
+                errorCount++;
+                System.out.println("Line " + row.line + ": " + row.error);
+            }
+        }
+    }
+
+    /**
+     * Holds a row of the file and the result of parsing it.
+     */
+    private class Row {
+
+        final int line;
+        final List<String> fields;
+        T value;
+        String error;
+
+        Row(int line, List<String> fields) {
+            this.line = line;
+            this.fields = fields;
+        }
+    }
+}
@@ -13,6 +13,61 @@ public class IcManagement {
     StudentManagement students = new StudentManagement();
     AboardProgramManagement programs = new AboardProgramManagement();
     RegistrationFormManagement registrations = new RegistrationFormManagement();
+    private final Persister persister;
+
+    /**
+     * Initializes a new instance of the IcManagement class that saves changes
+     * in the background every 30 seconds or after 50 changes.
+     */
+    public IcManagement() {
+        this(30, 50);
+    }
+
+    /**
+     * Initializes a new instance of the IcManagement class.
+     *
+     * @param saveInterval The number of seconds between two background saves.
+     * @param dirtyThreshold The number of changes that starts a background
+     * save before the interval has passed.
+     */
+    public IcManagement(long saveInterval, int dirtyThreshold) {
+        persister = new Persister(students, programs, registrations, saveInterval, dirtyThreshold);
+        persister.start();
+    }
+
+    /**
+     * Gets the student management.
+     *
+     * @return The StudentManagement object.
+     */
+    public StudentManagement getStudents() {
+        return students;
+    }
+
+    /**
+     * Gets the aboard program management.
+     *
+     * @return The AboardProgramManagement object.
+     */
+    public AboardProgramManagement getPrograms() {
+        return programs;
+    }
+
+    /**
+     * Gets the registration form management.
+     *
+     * @return The RegistrationFormManagement object.
+     */
+    public RegistrationFormManagement getRegistrations() {
+        return registrations;
+    }
+
+    /**
+     * Saves the pending changes of students and programs.
+     */
+    public void flush() {
+        persister.flush();
+    }
 
     /**
      * Displays all aboard programs.
@@ -31,12 +86,14 @@ public class IcManagement {
     }
 
     /**
-     * Edits an existing aboard program.
+     * Edits an existing aboard program, then registers the waitlisted students
+     * of the programs that have free seats again.
      *
      * @throws Exception if an error occurs during program editing.
      */
     public void editProgram() throws Exception {
         programs.updateProgram();
+        registrations.promoteWaitlist(students, programs);
     }
 
     /**
@@ -46,6 +103,32 @@ public class IcManagement {
         programs.searchProgram();
     }
 
+    /**
+     * Searches and displays programs by name, time, location, registration
+     * date and cost.
+     *
+     * @throws Exception if an error occurs during the search.
+     */
+    public void searchProgramByFilter() throws Exception {
+        programs.searchProgramByFilter();
+    }
+
+    /**
+     * Displays the programs that accept registration on a date.
+     *
+     * @throws Exception if an error occurs while reading the date.
+     */
+    public void displayOpenProgram() throws Exception {
+        programs.displayOpenProgram();
+    }
+
+    /**
+     * Imports programs from a CSV file.
+     */
+    public void importPrograms() {
+        programs.importPrograms();
+    }
+
     /**
      * Displays all students.
      */
@@ -67,6 +150,13 @@ public class IcManagement {
         students.updateStudent();
     }
 
+    /**
+     * Imports students from a CSV file.
+     */
+    public void importStudents() {
+        students.importStudents();
+    }
+
     /**
      * Adds a registration form for a student and a program.
      *
@@ -84,11 +174,25 @@ public class IcManagement {
         }
     }
 
+    /**
+     * Registers students for programs from a CSV file.
+     */
+    public void registerFromCsv() {
+        registrations.registerFromCsv(students, programs);
+    }
+
+    /**
+     * Writes again the registration forms whose content has changed.
+     */
+    public void regenerateForms() {
+        registrations.regenerateForms(students, programs);
+    }
+
     /**
      * Prints the registration details.
      */
     public void printResgistration() {
-        registrations.printRes(students);
+        registrations.printRes(students, programs);
     }
 
     /**
@@ -98,6 +202,25 @@ public class IcManagement {
         registrations.printStudent2Program(students);
     }
 
+    /**
+     * Prints the students who are registered for more than a number of
+     * programs.
+     *
+     * @throws Exception if an error occurs while reading the number.
+     */
+    public void printStudentsMoreThan() throws Exception {
+        registrations.printStudentsMoreThan(students);
+    }
+
+    /**
+     * Prints the students with the most registrations.
+     *
+     * @throws Exception if an error occurs while reading the number.
+     */
+    public void printTopStudents() throws Exception {
+        registrations.printTopStudents(students);
+    }
+
     /**
      * Counts the number of students registered for a program.
      */
@@ -106,15 +229,14 @@ public class IcManagement {
     }
 
     /**
-     * Quits the program execution.
+     * Quits the program execution. Every change has already been journaled,
+     * so the changes that have not been saved yet are saved before exiting.
      */
     public void quitProgram() {
         if (InputFormatter.getBoolean("Do you want to quit? (Y/N): ")) {
             if (!students.getIsSaved() || !programs.getIsSaved()) {
-                if (InputFormatter.getBoolean("Data has been changed! Do you to save before exit? (Y/N): ")) {
-                    programs.saveProgram();
-                    students.saveStudents();
-                }
+                System.out.println("Changes are saved automatically, saving the last ones...");
+                persister.flush();
             }
             System.out.println("Goodbye, have a nice day!");
             System.exit(0);
@@ -0,0 +1,100 @@
+package bussiness;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Saves changed students and programs in the background. A save runs every
+ * interval, or sooner once enough changes have been made, on a thread of its
+ * own so that the console never waits for the disk. Each save also flushes the
+ * hashes of the forms written since the last one to the form manifest.
+ *
+ * @author Nguyen Truong Tho
+ */
+public class Persister {
+
+    private final StudentManagement students;
+    private final AboardProgramManagement programs;
+    private final RegistrationFormManagement registrations;
+    private final long interval;
+    private final int dirtyThreshold;
+    private final AtomicInteger dirtyCount = new AtomicInteger();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "persister");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * Initializes a new instance of the Persister class.
+     *
+     * @param students The StudentManagement object.
+     * @param programs The AboardProgramManagement object.
+     * @param registrations The RegistrationFormManagement object.
+     * @param interval The number of seconds between two saves.
+     * @param dirtyThreshold The number of changes that starts a save before
+     * the interval has passed.
+     */
+    public Persister(StudentManagement students, AboardProgramManagement programs, RegistrationFormManagement registrations, long interval, int dirtyThreshold) {
+        this.students = students;
+        this.programs = programs;
+        this.registrations = registrations;
+        this.interval = interval;
+        this.dirtyThreshold = dirtyThreshold;
+    }
+
+    /**
+     * Starts saving in the background. Pending changes are also saved when
+     * the program exits.
+     */
+    public void start() {
+        students.setOnChange(this::markDirty);
+        programs.setOnChange(this::markDirty);
+        executor.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.SECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "persister-shutdown"));
+    }
+
+    /**
+     * Records a change and starts a save once the threshold is reached.
+     */
+    public void markDirty() {
+        if (dirtyCount.incrementAndGet() == dirtyThreshold) {
+            try {
+                executor.execute(this::flush);
+            } catch (RejectedExecutionException e) {
+                // already shut down, the final flush saves the change
+            }
+        }
+    }
+
+    /**
+     * Saves the students and programs that have changed, and the hashes of
+     * the written forms.
+     */
+    public synchronized void flush() {
+        dirtyCount.set(0);
+        if (!programs.getIsSaved()) {
+            programs.saveProgram();
+        }
+        if (!students.getIsSaved()) {
+            students.saveStudents();
+        }
+        registrations.flushManifest();
+    }
+
+    /**
+     * Stops saving in the background and saves the pending changes.
+     */
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(interval, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+}
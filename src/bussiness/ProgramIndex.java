@@ -0,0 +1,270 @@
+package bussiness;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import model.AboardProgram;
+
+/**
+ * Represents the indexes of aboard programs by name, time, location,
+ * registration window and cost.
+ *
+ * @author Nguyen Truong Tho
+ */
+public class ProgramIndex {
+
+    private final List<String> timeList;
+    private final List<Set<String>> byTime = new ArrayList<>();
+    private final TreeMap<String, Set<String>> byName = new TreeMap<>();
+    private final Map<String, Set<String>> byTrigram = new HashMap<>();
+    private final Map<String, Set<String>> byLocation = new HashMap<>();
+    private final RegistrationWindowIndex byWindow = new RegistrationWindowIndex();
+    private final TreeMap<Double, Set<String>> byCost = new TreeMap<>();
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    /**
+     * Initializes a new instance of the ProgramIndex class.
+     *
+     * @param timeList The times a program can take place in.
+     */
+    public ProgramIndex(List<String> timeList) {
+        this.timeList = timeList;
+        for (int i = 0; i < timeList.size(); i++) {
+            byTime.add(new HashSet<>());
+        }
+    }
+
+    /**
+     * Adds a program to the indexes. A program that is already indexed is
+     * indexed again with its current values.
+     *
+     * @param ap The program to add.
+     */
+    public void add(AboardProgram ap) {
+        remove(ap.getId());
+        Entry e = new Entry(ap);
+        entries.put(e.id, e);
+        if (e.time >= 0) {
+            byTime.get(e.time).add(e.id);
+        }
+        if (e.name != null) {
+            bucket(byName, e.name).add(e.id);
+            for (String trigram : trigrams(e.name)) {
+                bucket(byTrigram, trigram).add(e.id);
+            }
+        }
+        for (String location : e.locations) {
+            bucket(byLocation, location).add(e.id);
+        }
+        byWindow.add(e.id, e.from, e.end);
+        bucket(byCost, e.cost).add(e.id);
+    }
+
+    /**
+     * Removes a program from the indexes, using the values it had when it was
+     * added.
+     *
+     * @param id The ID of the program to remove.
+     */
+    public void remove(String id) {
+        Entry e = entries.remove(id);
+        if (e == null) {
+            return;
+        }
+        if (e.time >= 0) {
+            byTime.get(e.time).remove(id);
+        }
+        if (e.name != null) {
+            unbucket(byName, e.name, id);
+            for (String trigram : trigrams(e.name)) {
+                unbucket(byTrigram, trigram, id);
+            }
+        }
+        for (String location : e.locations) {
+            unbucket(byLocation, location, id);
+        }
+        byWindow.remove(id);
+        unbucket(byCost, e.cost, id);
+    }
+
+    /**
+     * Finds the programs that match every criterion of a query. The smallest
+     * candidate set is checked against the others.
+     *
+     * @param q The query.
+     * @return The IDs of the matching programs in ascending order.
+     */
+    public TreeSet<String> find(ProgramQuery q) {
+        List<Collection<String>> candidates = new ArrayList<>();
+        if (q.getName() != null) {
+            candidates.add(findByName(q.getName().toLowerCase(), q.getIsPrefix()));
+        }
+        if (q.getTime() != null) {
+            int time = timeIndex(q.getTime());
+            candidates.add(time < 0 ? new HashSet<>() : byTime.get(time));
+        }
+        if (q.getLocation() != null) {
+            Set<String> ids = byLocation.get(q.getLocation().toLowerCase());
+            candidates.add(ids == null ? new HashSet<>() : ids);
+        }
+        if (q.getOpenDate() != null) {
+            candidates.add(byWindow.findOpen(q.getOpenDate()));
+        }
+        if (q.getMinCost() != null || q.getMaxCost() != null) {
+            double min = q.getMinCost() == null ? Double.NEGATIVE_INFINITY : q.getMinCost();
+            double max = q.getMaxCost() == null ? Double.POSITIVE_INFINITY : q.getMaxCost();
+            candidates.add(min > max ? new HashSet<>() : union(byCost.subMap(min, true, max, true).values()));
+        }
+        if (candidates.isEmpty()) {
+            return new TreeSet<>(entries.keySet());
+        }
+        candidates.sort(Comparator.comparingInt(Collection::size));
+        TreeSet<String> result = new TreeSet<>(candidates.get(0));
+        for (int i = 1; i < candidates.size() && !result.isEmpty(); i++) {
+            result.retainAll(candidates.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Finds the programs that accept registration on a date.
+     *
+     * @param date The date.
+     * @return The IDs of the programs in ascending order.
+     */
+    public TreeSet<String> findOpen(LocalDate date) {
+        return byWindow.findOpen(date);
+    }
+
+    /**
+     * Checks whether a program accepts registration on a date.
+     *
+     * @param id The ID of the program.
+     * @param date The date.
+     * @return true if the program accepts registration on the date; otherwise,
+     * false.
+     */
+    public boolean isOpen(String id, LocalDate date) {
+        return byWindow.isOpen(id, date);
+    }
+
+    /**
+     * Finds the programs whose name starts with or contains a text. A text of
+     * three or more characters is looked up through the trigrams of the
+     * names, a shorter one by going through the names.
+     *
+     * @param text The lower case text.
+     * @param isPrefix true if the name must start with the text.
+     * @return The IDs of the programs.
+     */
+    private Set<String> findByName(String text, boolean isPrefix) {
+        if (isPrefix) {
+            return union(byName.subMap(text, true, text + Character.MAX_VALUE, false).values());
+        }
+        Set<String> ids = new HashSet<>();
+        if (text.length() < 3) {
+            for (Map.Entry<String, Set<String>> entry : byName.entrySet()) {
+                if (entry.getKey().contains(text)) {
+                    ids.addAll(entry.getValue());
+                }
+            }
+            return ids;
+        }
+        Set<String> candidates = null;
+        for (String trigram : trigrams(text)) {
+            Set<String> posting = byTrigram.get(trigram);
+            if (posting == null) {
+                return ids;
+            }
+            if (candidates == null) {
+                candidates = new HashSet<>(posting);
+            } else {
+                candidates.retainAll(posting);
+            }
+        }
+        for (String id : candidates) {
+            if (entries.get(id).name.contains(text)) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    private int timeIndex(String time) {
+        for (int i = 0; time != null && i < timeList.size(); i++) {
+            if (timeList.get(i).equalsIgnoreCase(time)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static Set<String> trigrams(String text) {
+        Set<String> trigrams = new HashSet<>();
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            trigrams.add(text.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    private static Set<String> union(Collection<Set<String>> sets) {
+        Set<String> ids = new HashSet<>();
+        for (Set<String> set : sets) {
+            ids.addAll(set);
+        }
+        return ids;
+    }
+
+    private static <K> Set<String> bucket(Map<K, Set<String>> map, K key) {
+        return map.computeIfAbsent(key, k -> new HashSet<>());
+    }
+
+    private static <K> void unbucket(Map<K, Set<String>> map, K key, String id) {
+        if (key == null) {
+            return;
+        }
+        Set<String> ids = map.get(key);
+        if (ids != null) {
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                map.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Holds the indexed values of a program as they were when it was added.
+     */
+    private class Entry {
+
+        final String id;
+        final String name;
+        final int time;
+        final List<String> locations = new ArrayList<>();
+        final LocalDate from;
+        final LocalDate end;
+        final double cost;
+
+        Entry(AboardProgram ap) {
+            id = ap.getId();
+            name = ap.getName() == null ? null : ap.getName().toLowerCase();
+            time = timeIndex(ap.getTime());
+            if (ap.getLocation() != null) {
+                for (String location : ap.getLocation()) {
+                    locations.add(location.toLowerCase());
+                }
+            }
+            from = ap.getFromRegistrationDate();
+            end = ap.getEndRegistrationDate();
+            cost = ap.getCost();
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package bussiness;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Represents the values of an aboard program given to
+ * AboardProgramManagement. When a program is updated, a value that is null,
+ * or an empty string or list, is kept unchanged.
+ *
+ * @author Nguyen Truong Tho
+ */
+public class ProgramInput {
+
+    private String id;
+    private String name;
+    private String time;
+    private LocalDate fromRegistrationDate;
+    private LocalDate endRegistrationDate;
+    private Integer days;
+    private List<String> location;
+    private Double cost;
+    private String content;
+    private Integer capacity;
+
+    /**
+     * Get the value of id
+     *
+     * @return the ID of the program
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Set the value of id
+     *
+     * @param id the ID of the program
+     */
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    /**
+     * Get the value of name
+     *
+     * @return the name of the program
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Set the value of name
+     *
+     * @param name the name of the program
+     */
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Get the value of time
+     *
+     * @return the time of the program
+     */
+    public String getTime() {
+        return time;
+    }
+
+    /**
+     * Set the value of time
+     *
+     * @param time the time of the program
+     */
+    public void setTime(String time) {
+        this.time = time;
+    }
+
+    /**
+     * Get the value of fromRegistrationDate
+     *
+     * @return the start date for program registration
+     */
+    public LocalDate getFromRegistrationDate() {
+        return fromRegistrationDate;
+    }
+
+    /**
+     * Set the value of fromRegistrationDate
+     *
+     * @param fromRegistrationDate the start date for program registration
+     */
+    public void setFromRegistrationDate(LocalDate fromRegistrationDate) {
+        this.fromRegistrationDate = fromRegistrationDate;
+    }
+
+    /**
+     * Get the value of endRegistrationDate
+     *
+     * @return the end date for program registration
+     */
+    public LocalDate getEndRegistrationDate() {
+        return endRegistrationDate;
+    }
+
+    /**
+     * Set the value of endRegistrationDate
+     *
+     * @param endRegistrationDate the end date for program registration
+     */
+    public void setEndRegistrationDate(LocalDate endRegistrationDate) {
+        this.endRegistrationDate = endRegistrationDate;
+    }
+
+    /**
+     * Get the value of days
+     *
+     * @return the number of days for the program
+     */
+    public Integer getDays() {
+        return days;
+    }
+
+    /**
+     * Set the value of days
+     *
+     * @param days the number of days for the program
+     */
+    public void setDays(Integer days) {
+        this.days = days;
+    }
+
+    /**
+     * Get the value of location
+     *
+     * @return the list of program locations
+     */
+    public List<String> getLocation() {
+        return location;
+    }
+
+    /**
+     * Set the value of location
+     *
+     * @param location the list of program locations
+     */
+    public void setLocation(List<String> location) {
+        this.location = location;
+    }
+
+    /**
+     * Get the value of cost
+     *
+     * @return the cost of the program
+     */
+    public Double getCost() {
+        return cost;
+    }
+
+    /**
+     * Set the value of cost
+     *
+     * @param cost the cost of the program
+     */
+    public void setCost(Double cost) {
+        this.cost = cost;
+    }
+
+    /**
+     * Get the value of content
+     *
+     * @return the content/description of the program
+     */
+    public String getContent() {
+        return content;
+    }
+
+    /**
+     * Set the value of content
+     *
+     * @param content the content/description of the program
+     */
+    public void setContent(String content) {
+        this.content = content;
+    }
+
+    /**
+     * Get the value of capacity
+     *
+     * @return the number of seats of the program, 0 for unlimited
+     */
+    public Integer getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Set the value of capacity
+     *
+     * @param capacity the number of seats of the program, 0 for unlimited
+     */
+    public void setCapacity(Integer capacity) {
+        this.capacity = capacity;
+    }
+}
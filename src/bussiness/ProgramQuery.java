@@ -0,0 +1,140 @@
+package bussiness;
+
+import java.time.LocalDate;
+
+/**
+ * Represents the criteria of a search for aboard programs. A criterion that
+ * is null is not checked.
+ *
+ * @author Nguyen Truong Tho
+ */
+public class ProgramQuery {
+
+    private String name;
+    private boolean isPrefix;
+    private String time;
+    private String location;
+    private LocalDate openDate;
+    private Double minCost;
+    private Double maxCost;
+
+    /**
+     * Get the value of name
+     *
+     * @return the text the program name must contain or start with
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Set the value of name
+     *
+     * @param name the text the program name must contain or start with
+     * @param isPrefix true if the name must start with the text, false if it
+     * only has to contain it
+     */
+    public void setName(String name, boolean isPrefix) {
+        this.name = name;
+        this.isPrefix = isPrefix;
+    }
+
+    /**
+     * Get the value of isPrefix
+     *
+     * @return true if the name must start with the text
+     */
+    public boolean getIsPrefix() {
+        return isPrefix;
+    }
+
+    /**
+     * Get the value of time
+     *
+     * @return the time of the program
+     */
+    public String getTime() {
+        return time;
+    }
+
+    /**
+     * Set the value of time
+     *
+     * @param time the time of the program
+     */
+    public void setTime(String time) {
+        this.time = time;
+    }
+
+    /**
+     * Get the value of location
+     *
+     * @return a location the program must offer
+     */
+    public String getLocation() {
+        return location;
+    }
+
+    /**
+     * Set the value of location
+     *
+     * @param location a location the program must offer
+     */
+    public void setLocation(String location) {
+        this.location = location;
+    }
+
+    /**
+     * Get the value of openDate
+     *
+     * @return a date inside the registration window of the program
+     */
+    public LocalDate getOpenDate() {
+        return openDate;
+    }
+
+    /**
+     * Set the value of openDate
+     *
+     * @param openDate a date inside the registration window of the program
+     */
+    public void setOpenDate(LocalDate openDate) {
+        this.openDate = openDate;
+    }
+
+    /**
+     * Get the value of minCost
+     *
+     * @return the lowest accepted cost
+     */
+    public Double getMinCost() {
+        return minCost;
+    }
+
+    /**
+     * Set the value of minCost
+     *
+     * @param minCost the lowest accepted cost
+     */
+    public void setMinCost(Double minCost) {
+        this.minCost = minCost;
+    }
+
+    /**
+     * Get the value of maxCost
+     *
+     * @return the highest accepted cost
+     */
+    public Double getMaxCost() {
+        return maxCost;
+    }
+
+    /**
+     * Set the value of maxCost
+     *
+     * @param maxCost the highest accepted cost
+     */
+    public void setMaxCost(Double maxCost) {
+        this.maxCost = maxCost;
+    }
+}
@@ -1,20 +1,36 @@
 package bussiness;
 
 import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import tools.InputFormatter;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Date;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import model.AboardProgram;
+import model.Registration;
 import model.Student;
+import tools.Dates;
+import tools.FormManifest;
+import tools.FormTemplate;
+import tools.FormWriter;
+import tools.RegistrationStore;
+import tools.Validator;
 
 /**
  * Represents a management class for registration forms.
@@ -28,7 +44,228 @@ public class RegistrationFormManagement {
     private final String programIdRegex = "^([a-zA-Z])[0-9]{3,4}$";
     private final String programExc = "Aboard Program's ID must be valid (include 1 letter and 3-4 digit!";
     private final String dirFile = "src\\RegistrationForm\\";
-    SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyy");
+    private static final ThreadLocal<StringBuilder> formBuffer = ThreadLocal.withInitial(StringBuilder::new);
+    private final FormTemplate formTemplate = FormTemplate.load("src\\file\\form-template.txt");
+    private final FormManifest manifest = new FormManifest("src\\file\\forms.manifest");
+    private final SeatRegistry seats = new SeatRegistry("src\\file\\waitlist.dat");
+    private final FormWriter formWriter;
+    private final RegistrationStore store;
+    private final Map<String, Registration> registrations = new LinkedHashMap<>();
+    private final RegistrationIndex index = new RegistrationIndex();
+
+    /**
+     * Initializes a new instance of the RegistrationFormManagement class that
+     * keeps its records in the default registrations file.
+     */
+    public RegistrationFormManagement() {
+        this("src\\file\\registrations.dat");
+    }
+
+    /**
+     * Initializes a new instance of the RegistrationFormManagement class that
+     * writes forms in the background with at most 64 writes in progress.
+     *
+     * @param registrationsFile The name of the file of registration records.
+     */
+    public RegistrationFormManagement(String registrationsFile) {
+        this(registrationsFile, FormWriter.create(64));
+    }
+
+    /**
+     * Initializes a new instance of the RegistrationFormManagement class.
+     * Loads the registration records and builds the registration index. The
+     * first time the records file is missing, the saved forms are imported
+     * into it. Forms saved directly in the forms folder are moved into the
+     * folder of their program. The seats taken in each program are counted
+     * from the records. A records file in an older format is rewritten in the
+     * current one.
+     *
+     * @param registrationsFile The name of the file of registration records.
+     * @param formWriter The writer of the form files.
+     */
+    public RegistrationFormManagement(String registrationsFile, FormWriter formWriter) {
+        this.formWriter = formWriter;
+        store = new RegistrationStore(registrationsFile);
+        if (!store.exists()) {
+            importForms();
+        }
+        migrateForms();
+        for (Registration r : store.loadAll()) {
+            registrations.put(r.getFormName(), r);
+            index.add(r.getStudentId(), r.getProgramId());
+        }
+        for (Registration r : registrations.values()) {
+            seats.claim(r.getProgramId());
+        }
+        try {
+            if (store.isOldVersion()) {
+                store.replaceAll(new ArrayList<>(registrations.values()));
+            }
+        } catch (IOException e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Gets the index of saved registrations.
+     *
+     * @return The registration index.
+     */
+    public RegistrationIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Gets the registration of a student for a program.
+     *
+     * @param studentId The ID of the student.
+     * @param programId The ID of the program.
+     * @return The registration, or null if the student has not registered.
+     */
+    public synchronized Registration getRegistration(String studentId, String programId) {
+        return registrations.get(studentId + "_" + programId + ".doc");
+    }
+
+    /**
+     * Gets the registry of the seats taken in each program and of the
+     * waitlists.
+     *
+     * @return The seat registry.
+     */
+    public SeatRegistry getSeats() {
+        return seats;
+    }
+
+    /**
+     * Imports the registrations of the forms saved before the records file
+     * existed, both directly in the forms folder and in the program folders.
+     * The folders are read one entry at a time.
+     */
+    private void importForms() {
+        List<Registration> list = new ArrayList<>();
+        Path dir = Paths.get(dirFile);
+        if (Files.isDirectory(dir)) {
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+                for (Path entry : entries) {
+                    if (Files.isDirectory(entry)) {
+                        try (DirectoryStream<Path> forms = Files.newDirectoryStream(entry, "*_" + entry.getFileName() + ".doc")) {
+                            for (Path form : forms) {
+                                list.add(parseForm(form));
+                            }
+                        }
+                    } else if (isFormName(entry.getFileName().toString())) {
+                        list.add(parseForm(entry));
+                    }
+                }
+            } catch (IOException e) {
+                System.out.println("Error: " + e.getMessage());
+            }
+        }
+        try {
+            store.append(list);
+        } catch (IOException e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Moves the forms saved directly in the forms folder into the folder of
+     * their program.
+     */
+    private void migrateForms() {
+        Path dir = Paths.get(dirFile);
+        int count = 0;
+        if (Files.isDirectory(dir)) {
+            try (DirectoryStream<Path> forms = Files.newDirectoryStream(dir, "*_*.doc")) {
+                for (Path form : forms) {
+                    String name = form.getFileName().toString();
+                    if (Files.isRegularFile(form) && isFormName(name)) {
+                        Path shard = dir.resolve(name.substring(name.indexOf('_') + 1, name.length() - ".doc".length()));
+                        try {
+                            Files.createDirectories(shard);
+                            Files.move(form, shard.resolve(name), StandardCopyOption.REPLACE_EXISTING);
+                            count++;
+                        } catch (IOException e) {
+                            System.out.println("Error: " + name + " " + e.getMessage());
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                System.out.println("Error: " + e.getMessage());
+            }
+        }
+        if (count > 0) {
+            System.out.println(count + " forms have been moved into the folders of their programs.");
+        }
+    }
+
+    /**
+     * Checks whether a file name is the name of a form.
+     *
+     * @param name The file name.
+     * @return true if the name is STUDENTID_PROGRAMID.doc; otherwise, false.
+     */
+    private static boolean isFormName(String name) {
+        return name.indexOf('_') > 0 && name.endsWith(".doc");
+    }
+
+    /**
+     * Gets the file of the form of a registration. Forms are kept in one
+     * folder per program.
+     *
+     * @param r The registration.
+     * @return The name of the form file.
+     */
+    private String formFile(Registration r) {
+        return dirFile + r.getProgramId() + "\\" + r.getFormName();
+    }
+
+    /**
+     * Reads a registration back from a saved form.
+     *
+     * @param f The form file, named STUDENTID_PROGRAMID.doc.
+     * @return The registration.
+     */
+    private Registration parseForm(Path f) {
+        String name = f.getFileName().toString();
+        int sep = name.indexOf('_');
+        Registration r = new Registration(name.substring(0, sep), name.substring(sep + 1, name.length() - ".doc".length()), null, "", "", "");
+        try (BufferedReader br = Files.newBufferedReader(f, Charset.defaultCharset())) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (line.contains("Email of the parents: ")) {
+                    r.setParentMail(field(line, "Email of the parents: ", "   Phone of the parents: "));
+                    r.setParentPhone(field(line, "Phone of the parents: ", null));
+                } else if (line.contains("Location: ")) {
+                    r.setLocation(field(line, "Location: ", "   Cost: "));
+                } else if (line.startsWith("Registration date: ")) {
+                    String date = field(line, "Registration date: ", null);
+                    r.setRegistrationDate(Dates.parse(date));
+                    if (r.getRegistrationDate() == null) {
+                        System.out.println("Error: " + name + " has a wrong registration date " + date);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Error: " + name + " " + e.getMessage());
+        }
+        return r;
+    }
+
+    /**
+     * Gets the text of a form line between a label and the next label.
+     *
+     * @param line The form line.
+     * @param label The label in front of the value.
+     * @param next The label after the value, or null if the value ends the
+     * line.
+     * @return The value.
+     */
+    private static String field(String line, String label, String next) {
+        int start = line.indexOf(label) + label.length();
+        int end = next == null ? -1 : line.indexOf(next, start);
+        return (end < 0 ? line.substring(start) : line.substring(start, end)).trim();
+    }
 
     /**
      * Adds a new registration form for a student.
@@ -40,23 +277,38 @@ public class RegistrationFormManagement {
      */
     public void addRegistration(StudentManagement students, AboardProgramManagement programs) throws ParseException, Exception {
         String studentId = InputFormatter.getString("Enter Student's Id: ", studentExc, studentIdRegex).toUpperCase();
-        if (students.containsKey(studentId)) {
+        Student student = students.get(studentId);
+        if (student != null) {
             String programId = InputFormatter.getString("Enter Program's ID: ", programExc, programIdRegex).toUpperCase();
-            if (programs.containsKey(programId)) {
-                Date registrationDate = InputFormatter.getDateAfter("Enter Registration Date: ", programs.get(programId).getFromRegistrationDate());
-                while (registrationDate.compareTo(programs.get(programId).getEndRegistrationDate()) > 0) {
-                    registrationDate = registrationDate = InputFormatter.getDateAfter("Enter Registration Date: ", programs.get(programId).getFromRegistrationDate());
+            AboardProgram program = programs.get(programId);
+            if (program != null && getRegistration(studentId, programId) != null) {
+                System.out.println("The student has already registered for the program!");
+            } else if (program != null) {
+                LocalDate registrationDate = InputFormatter.getDate("Enter Registration Date: ");
+                while (!programs.isOpen(programId, registrationDate)) {
+                    System.out.println("The program only accepts registration from " + Dates.format(program.getFromRegistrationDate())
+                            + " to " + Dates.format(program.getEndRegistrationDate()) + "!");
+                    List<AboardProgram> open = programs.getOpenPrograms(registrationDate);
+                    if (!open.isEmpty()) {
+                        System.out.print("Programs open on " + Dates.format(registrationDate) + ":");
+                        for (AboardProgram ap : open) {
+                            System.out.print(" " + ap.getId());
+                        }
+                        System.out.println();
+                    }
+                    registrationDate = InputFormatter.getDate("Enter Registration Date: ");
                 }
                 String parentMail = InputFormatter.getMail("Enter Parent's Mail: ", "@gmail.com");
                 String parentPhone = InputFormatter.getPhone("Enter Parent's Phone: ");
                 System.out.println("Choose location: ");
-                List<String> locationList = programs.get(programId).getLocation();
-                programs.showLocation(programs.get(programId));
+                List<String> locationList = program.getLocation();
+                programs.showLocation(program);
                 int choice = InputFormatter.getInt("Enter your choice: ", "Your choice must from 1 to " + locationList.size(), 1, locationList.size());
                 String location = locationList.get(choice - 1);
-                Student student = students.get(studentId);
-                AboardProgram program = programs.get(programId);
-                saveForm(student, program, registrationDate, parentMail, parentPhone, location);
+                if (!saveForm(student, program, registrationDate, parentMail, parentPhone, location)
+                        && InputFormatter.getBoolean("The program is full! Put the student on the waitlist? (Y/N): ")) {
+                    addToWaitlist(new Registration(studentId, programId, registrationDate, parentMail, parentPhone, location));
+                }
             } else {
                 System.out.println("The program does not exist!");
             }
@@ -66,7 +318,340 @@ public class RegistrationFormManagement {
     }
 
     /**
-     * Saves the registration form to a file.
+     * Registers students for programs from a CSV file whose name is entered
+     * by the user, and displays the summary of the batch.
+     *
+     * @param students The StudentManagement object.
+     * @param programs The AboardProgramManagement object.
+     */
+    public void registerFromCsv(StudentManagement students, AboardProgramManagement programs) {
+        String fileName = InputFormatter.getStringNotNull("Enter CSV file: ");
+        CsvImporter<Registration> importer = new CsvImporter<Registration>() {
+            @Override
+            protected Registration parse(List<String> row) throws Exception {
+                return parseRequest(row);
+            }
+
+            @Override
+            protected boolean isHeader(List<String> row) {
+                return row.get(0).equalsIgnoreCase("student id");
+            }
+
+            @Override
+            protected String accept(Registration r) {
+                return null;
+            }
+        };
+        List<Registration> requests;
+        try {
+            requests = importer.read(fileName);
+        } catch (IOException e) {
+            System.out.println("Error: " + e.getMessage());
+            return;
+        }
+        BatchReport report = registerAll(requests, students, programs);
+        report.print();
+        if (importer.getErrorCount() > 0) {
+            System.out.println(importer.getErrorCount() + " rows of the file were not valid.");
+        }
+    }
+
+    /**
+     * Parses and validates the fields of a registration request: student id,
+     * program id, registration date, parent's mail, parent's phone and
+     * location. It can be called from several threads at once.
+     *
+     * @param row The fields.
+     * @return The registration request.
+     * @throws Exception if the fields are not valid, with the reason as
+     * message.
+     */
+    public Registration parseRequest(List<String> row) throws Exception {
+        if (row.size() != 6) {
+            throw new Exception("Expected 6 columns: student id, program id, registration date, parent's mail, parent's phone, location");
+        }
+        if (!Validator.isStudentId(row.get(0))) {
+            throw new Exception(studentExc);
+        }
+        if (!Validator.isProgramId(row.get(1))) {
+            throw new Exception(programExc);
+        }
+        if (!Validator.isDate(row.get(2))) {
+            throw new Exception("Wrong date format, the date must be in dd/mm/yyyy format!");
+        }
+        return new Registration(row.get(0).toUpperCase(), row.get(1).toUpperCase(), Dates.parse(row.get(2)),
+                row.get(3), row.get(4), row.get(5));
+    }
+
+    /**
+     * Registers a student for a program. The request is checked like the
+     * requests of a batch, and it is put on the waitlist if the program is
+     * full.
+     *
+     * @param r The registration request.
+     * @param students The StudentManagement object.
+     * @param programs The AboardProgramManagement object.
+     * @return The saved registration, or the reason it has not been saved.
+     */
+    public Result<Registration> register(Registration r, StudentManagement students, AboardProgramManagement programs) {
+        String reason = checkRequest(r, students, programs);
+        if (reason == null) {
+            reason = reserve(r, programs);
+        }
+        if (reason != null) {
+            return Result.fail(reason);
+        }
+        return save(Collections.singletonList(r), students, programs).get(0);
+    }
+
+    /**
+     * Registers students for programs in a batch. The requests are checked
+     * against the students, the programs and the saved registrations, and a
+     * seat is reserved for each of them; the requests for a full program are
+     * put on its waitlist. The accepted ones are saved together, and their
+     * forms are written in the background by the form writer.
+     *
+     * @param requests The registration requests.
+     * @param students The StudentManagement object.
+     * @param programs The AboardProgramManagement object.
+     * @return The report of the batch.
+     */
+    public BatchReport registerAll(List<Registration> requests, StudentManagement students, AboardProgramManagement programs) {
+        long start = System.nanoTime();
+        BatchReport report = new BatchReport();
+        List<Registration> accepted = new ArrayList<>();
+        Set<String> formNames = new HashSet<>();
+        for (Registration r : requests) {
+            String reason = checkRequest(r, students, programs);
+            if (reason == null && !formNames.add(r.getFormName())) {
+                reason = "The request is repeated in the batch!";
+            }
+            if (reason == null) {
+                reason = reserve(r, programs);
+            }
+            if (reason == null) {
+                accepted.add(r);
+            } else {
+                report.addFailure(r, reason);
+            }
+        }
+        saveAll(accepted, report, students, programs);
+        report.setElapsedNanos(System.nanoTime() - start);
+        return report;
+    }
+
+    /**
+     * Reserves a seat for a registration request in its program, or puts the
+     * request on the waitlist if the program is full.
+     *
+     * @param r The registration request.
+     * @param programs The AboardProgramManagement object.
+     * @return The reason the request cannot be registered now, or null if a
+     * seat has been reserved.
+     */
+    private String reserve(Registration r, AboardProgramManagement programs) {
+        if (seats.tryReserve(r.getProgramId(), programs.get(r.getProgramId()).getCapacity())) {
+            return null;
+        }
+        return addToWaitlist(r) ? "The program is full, the student has been put on the waitlist!" : "The program is full!";
+    }
+
+    /**
+     * Saves registrations whose seats have been reserved, writes their forms
+     * and adds the results to a report. The manifest is flushed once for the
+     * whole batch.
+     *
+     * @param accepted The registrations.
+     * @param report The report the results are added to.
+     * @param students The StudentManagement object.
+     * @param programs The AboardProgramManagement object.
+     */
+    private void saveAll(List<Registration> accepted, BatchReport report, StudentManagement students, AboardProgramManagement programs) {
+        List<Result<Registration>> results = save(accepted, students, programs);
+        for (int i = 0; i < accepted.size(); i++) {
+            if (results.get(i).isSuccess()) {
+                report.addSuccess(accepted.get(i));
+            } else {
+                report.addFailure(accepted.get(i), results.get(i).getError());
+            }
+        }
+        manifest.flush();
+    }
+
+    /**
+     * Saves registrations whose seats have been reserved and writes their
+     * forms. The seat of a registration that cannot be saved is given back.
+     *
+     * @param accepted The registrations.
+     * @param students The StudentManagement object.
+     * @param programs The AboardProgramManagement object.
+     * @return The result of each registration, in the same order.
+     */
+    private List<Result<Registration>> save(List<Registration> accepted, StudentManagement students, AboardProgramManagement programs) {
+        List<Result<Registration>> results = new ArrayList<>();
+        List<Registration> saved = new ArrayList<>();
+        synchronized (this) {
+            for (Registration r : accepted) {
+                if (registrations.containsKey(r.getFormName())) {
+                    seats.release(r.getProgramId());
+                    results.add(Result.fail("The student has already registered for the program!"));
+                } else {
+                    saved.add(r);
+                    results.add(null);
+                }
+            }
+            if (saved.isEmpty()) {
+                return results;
+            }
+            try {
+                store.append(saved);
+            } catch (IOException e) {
+                for (int i = 0; i < accepted.size(); i++) {
+                    if (results.get(i) == null) {
+                        seats.release(accepted.get(i).getProgramId());
+                        results.set(i, Result.fail("Error: " + e.getMessage()));
+                    }
+                }
+                return results;
+            }
+            for (Registration r : saved) {
+                registrations.put(r.getFormName(), r);
+                index.add(r.getStudentId(), r.getProgramId());
+            }
+        }
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (Registration r : saved) {
+            futures.add(exportForm(r, students.get(r.getStudentId()), programs.get(r.getProgramId())));
+        }
+        int next = 0;
+        for (int i = 0; i < accepted.size(); i++) {
+            if (results.get(i) != null) {
+                continue;
+            }
+            try {
+                futures.get(next++).join();
+                results.set(i, Result.ok(accepted.get(i)));
+            } catch (CompletionException e) {
+                results.set(i, Result.fail("The form could not be written: " + e.getCause().getMessage()));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Appends the hashes of the forms written since the last flush to the
+     * manifest. Batches flush the manifest when they end; the forms saved one
+     * at a time are flushed by the Persister.
+     */
+    public void flushManifest() {
+        manifest.flush();
+    }
+
+    /**
+     * Puts a registration request on the waitlist of its program, unless the
+     * student is already on it.
+     *
+     * @param r The registration request.
+     * @return true if the request has been put on the waitlist; otherwise,
+     * false.
+     */
+    private boolean addToWaitlist(Registration r) {
+        try {
+            if (!seats.addToWaitlist(r)) {
+                System.out.println("The student is already on the waitlist of the program!");
+                return false;
+            }
+            System.out.println("The student has been put on the waitlist of " + r.getProgramId() + "!");
+            return true;
+        } catch (IOException e) {
+            System.out.println("Error: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Registers the students on the waitlists of the programs that have free
+     * seats again, for example after their capacity has been raised. The
+     * students are taken in the order they were put on the waitlist.
+     *
+     * @param students The StudentManagement object.
+     * @param programs The AboardProgramManagement object.
+     * @return The report of the registrations made.
+     */
+    public BatchReport promoteWaitlist(StudentManagement students, AboardProgramManagement programs) {
+        long start = System.nanoTime();
+        BatchReport report = new BatchReport();
+        List<Registration> accepted = new ArrayList<>();
+        boolean isChanged = false;
+        for (String programId : seats.getWaitingPrograms()) {
+            AboardProgram program = programs.get(programId);
+            if (program == null) {
+                continue;
+            }
+            for (Registration r : seats.promote(programId, program.getCapacity())) {
+                isChanged = true;
+                String reason = checkRequest(r, students, programs);
+                if (reason == null) {
+                    accepted.add(r);
+                } else {
+                    seats.release(programId);
+                    report.addFailure(r, reason);
+                }
+            }
+        }
+        if (isChanged) {
+            saveAll(accepted, report, students, programs);
+            try {
+                seats.saveWaitlists();
+            } catch (IOException e) {
+                System.out.println("Error: " + e.getMessage());
+            }
+            report.setElapsedNanos(System.nanoTime() - start);
+            report.print();
+        }
+        return report;
+    }
+
+    /**
+     * Checks a registration request against the students, the programs and
+     * the saved registrations.
+     *
+     * @param r The registration request.
+     * @param students The StudentManagement object.
+     * @param programs The AboardProgramManagement object.
+     * @return The reason the request cannot be registered, or null if it can.
+     */
+    private String checkRequest(Registration r, StudentManagement students, AboardProgramManagement programs) {
+        if (!students.containsKey(r.getStudentId())) {
+            return "The student does not exist!";
+        }
+        AboardProgram program = programs.get(r.getProgramId());
+        if (program == null) {
+            return "The program does not exist!";
+        }
+        if (r.getRegistrationDate() == null || !programs.isOpen(r.getProgramId(), r.getRegistrationDate())) {
+            return "The program does not accept registration on this date!";
+        }
+        if (r.getParentMail() == null || !Validator.isMail(r.getParentMail(), "@gmail.com")) {
+            return "Parent's mail must only include letters, numbers and end with domain @gmail.com";
+        }
+        if (r.getParentPhone() == null || !Validator.isPhone(r.getParentPhone())) {
+            return "Parent's phone must be in phone number format!";
+        }
+        if (!program.getLocation().contains(r.getLocation())) {
+            return "The program does not take place in " + r.getLocation() + "!";
+        }
+        if (getRegistration(r.getStudentId(), r.getProgramId()) != null) {
+            return "The student has already registered for the program!";
+        }
+        return null;
+    }
+
+    /**
+     * Saves the registration record and exports its form to a file, if the
+     * student has not registered for the program yet and a seat can be
+     * reserved in it. Nothing is printed when the program is full, so that
+     * the caller can offer the waitlist instead.
      *
      * @param student The Student object.
      * @param program The AboardProgram object.
@@ -74,78 +659,162 @@ public class RegistrationFormManagement {
      * @param parentMail The parent's email.
      * @param parentPhone The parent's phone number.
      * @param location The chosen location.
+     * @return false if the program is full; otherwise, true.
      * @throws IOException if there is an error during file saving.
      */
-    public void saveForm(Student student, AboardProgram program, Date registrationDate, String parentMail, String parentPhone, String location) throws IOException {
-        String fileName = student.getId() + "_" + program.getId() + ".doc";
+    public boolean saveForm(Student student, AboardProgram program, LocalDate registrationDate, String parentMail, String parentPhone, String location) throws IOException {
+        Registration r = new Registration(student.getId(), program.getId(), registrationDate, parentMail, parentPhone, location);
         try {
-            File f = new File(dirFile + fileName);
-            FileWriter fw = new FileWriter(f);
-            PrintWriter pw = new PrintWriter(fw);
-            pw.println("\t\tAboard Program Registration Form");
-            pw.println();
-            pw.println("Information Student:");
-            pw.println();
-            pw.printf("%-25s%s\n", "Student's id: " + student.getId(), "Student name: " + student.getName());
-            pw.println();
-            pw.printf("%-25s%s   %s   %s\n", "Major: " + student.getMajor(), "Email: " + student.getEmail(), "Phone: " + student.getPhone(), "Passport: " + student.getPassport());
-            pw.println();
-            pw.printf("%-25s%s   %s\n", "Address: " + student.getAddress(), "Email of the parents: " + parentMail, "Phone of the parents: " + parentPhone);
-            pw.println();
-            pw.println("Information of the aboard program:");
-            pw.println();
-            pw.printf("%-25s%s\n", "Program's id: " + program.getId(), "Program's name: " + program.getName());
-            pw.println();
-            pw.printf("%-25s%s%d   %s   %s%.0f$\n", "Time: " + program.getTime(), "Days: ", program.getDays(), "Location: " + location, "Cost: ", program.getCost());
-            pw.println();
-            pw.println("Information of the registration:");
-            pw.println();
-            pw.println("Registration date: " + sdf.format(registrationDate));
-            fw.close();
-            pw.close();
-            System.out.println(fileName + " has been saved!");
+            synchronized (this) {
+                if (registrations.containsKey(r.getFormName())) {
+                    System.out.println("The student has already registered for the program!");
+                    return true;
+                }
+                if (!seats.tryReserve(program.getId(), program.getCapacity())) {
+                    return false;
+                }
+                try {
+                    store.append(r);
+                } catch (IOException e) {
+                    seats.release(program.getId());
+                    throw e;
+                }
+                registrations.put(r.getFormName(), r);
+                index.add(r.getStudentId(), r.getProgramId());
+            }
+            exportForm(r, student, program).join();
+            System.out.println(r.getFormName() + " has been saved!");
         } catch (IOException e) {
             System.out.println("Error: " + e.getMessage());
+        } catch (CompletionException e) {
+            System.out.println("Error: " + e.getCause().getMessage());
         }
+        return true;
     }
 
     /**
-     * Prints the registration form for a specific student.
+     * Exports the form of a registration to a file. The form is rendered on
+     * the calling thread and written in the background.
+     *
+     * @param r The registration.
+     * @param student The registered student.
+     * @param program The registered program.
+     * @return The future that completes when the form has been written.
+     */
+    public CompletableFuture<Void> exportForm(Registration r, Student student, AboardProgram program) {
+        StringBuilder form = renderForm(r, student, program);
+        long hash = FormManifest.hash(form);
+        return formWriter.write(formFile(r), form).thenRun(() -> manifest.put(r.getFormName(), hash));
+    }
+
+    /**
+     * Writes again the forms whose content has changed since they were last
+     * written, for example after the student or the program has been edited,
+     * and the forms whose file is missing. Every form is rendered and its hash
+     * compared with the manifest; the changed forms are written in parallel.
      *
      * @param students The StudentManagement object.
+     * @param programs The AboardProgramManagement object.
+     * @return The number of forms written.
      */
-    public void printRes(StudentManagement students) {
-        try {
-            File dir = new File(dirFile);
-            List<File> fList = Arrays.asList(dir.listFiles());
-            if (!fList.isEmpty()) {
-                String studentId = InputFormatter.getString("Enter Student's Id: ", studentExc, studentIdRegex).toUpperCase();
-                if (students.containsKey(studentId)) {
-                    int count = 0;
-                    for (File f : fList) {
-                        if (f.getName().startsWith(studentId)) {
-                            BufferedReader br = new BufferedReader(new FileReader(f));
-                            String line;
-                            System.out.println("---------------------------------------------------------------------------------------------------");
-
-                            while ((line = br.readLine()) != null) {
-                                System.out.println(line);
-                            }
-                            System.out.println("---------------------------------------------------------------------------------------------------");
-                            count++;
-                        }
-                    }
-                    System.out.println("Number of registration: " + count);
+    public int regenerateForms(StudentManagement students, AboardProgramManagement programs) {
+        long start = System.nanoTime();
+        List<Registration> list;
+        synchronized (this) {
+            list = new ArrayList<>(registrations.values());
+        }
+        Map<Registration, CompletableFuture<Void>> writes = new ConcurrentHashMap<>();
+        list.parallelStream().forEach(r -> {
+            Student student = students.get(r.getStudentId());
+            AboardProgram program = programs.get(r.getProgramId());
+            if (student != null && program != null) {
+                String fileName = formFile(r);
+                StringBuilder form = renderForm(r, student, program);
+                long hash = FormManifest.hash(form);
+                if (!manifest.isCurrent(r.getFormName(), hash) || !Files.exists(Paths.get(fileName))) {
+                    writes.put(r, formWriter.write(fileName, form).thenRun(() -> manifest.put(r.getFormName(), hash)));
+                }
+            }
+        });
+        int written = 0;
+        for (Map.Entry<Registration, CompletableFuture<Void>> entry : writes.entrySet()) {
+            try {
+                entry.getValue().join();
+                written++;
+            } catch (CompletionException e) {
+                System.out.println("Error: " + entry.getKey().getFormName() + " " + e.getCause().getMessage());
+            }
+        }
+        manifest.compact();
+        System.out.printf("%d forms have been regenerated, %d were up to date (%.0f ms).\n",
+                written, list.size() - writes.size(), (System.nanoTime() - start) / 1e6);
+        return written;
+    }
 
-                } else {
-                    System.out.println("The student does not exist!");
+    /**
+     * Renders the form of a registration into the buffer of the calling
+     * thread. The buffer is reused by the next form rendered on the thread.
+     *
+     * @param r The registration.
+     * @param student The registered student.
+     * @param program The registered program.
+     * @return The buffer holding the form.
+     */
+    private StringBuilder renderForm(Registration r, Student student, AboardProgram program) {
+        StringBuilder sb = formBuffer.get();
+        sb.setLength(0);
+        formTemplate.render(sb, r, student, program);
+        return sb;
+    }
+
+    /**
+     * Prints the registration form for a specific student.
+     *
+     * @param students The StudentManagement object.
+     * @param programs The AboardProgramManagement object.
+     */
+    public void printRes(StudentManagement students, AboardProgramManagement programs) {
+        if (!index.isEmpty()) {
+            String studentId = InputFormatter.getString("Enter Student's Id: ", studentExc, studentIdRegex).toUpperCase();
+            Result<List<AboardProgram>> result = getRegisteredPrograms(studentId, students, programs);
+            if (result.isSuccess()) {
+                Student student = students.get(studentId);
+                PrintWriter pw = new PrintWriter(System.out);
+                for (AboardProgram program : result.getValue()) {
+                    pw.println("---------------------------------------------------------------------------------------------------");
+                    pw.print(renderForm(getRegistration(studentId, program.getId()), student, program));
+                    pw.println("---------------------------------------------------------------------------------------------------");
                 }
+                pw.println("Number of registration: " + result.getValue().size());
+                pw.flush();
             } else {
-                System.out.println("No forms have been saved yet!");
+                System.out.println(result.getError());
             }
-        } catch (IOException e) {
-            System.out.println("Error: " + e.getMessage());
+        } else {
+            System.out.println("No forms have been saved yet!");
+        }
+    }
+
+    /**
+     * Gets the programs a student has registered for.
+     *
+     * @param studentId The ID of the student.
+     * @param students The StudentManagement object.
+     * @param programs The AboardProgramManagement object.
+     * @return The programs, or the reason they cannot be found.
+     */
+    public Result<List<AboardProgram>> getRegisteredPrograms(String studentId, StudentManagement students, AboardProgramManagement programs) {
+        if (students.get(studentId) == null) {
+            return Result.fail("The student does not exist!");
         }
+        List<AboardProgram> list = new ArrayList<>();
+        for (String programId : index.getPrograms(studentId)) {
+            AboardProgram program = programs.get(programId);
+            if (program != null) {
+                list.add(program);
+            }
+        }
+        return Result.ok(list);
     }
 
     /**
@@ -154,29 +823,89 @@ public class RegistrationFormManagement {
      * @param students The StudentManagement object.
      */
     public void printStudent2Program(StudentManagement students) {
-        File dir = new File(dirFile);
-        List<File> fList = Arrays.asList(dir.listFiles());
-        List<Student> sList = new ArrayList<>();
-        if (!fList.isEmpty()) {
-            for (String id : students.keySet()) {
-                int count = 0;
-                for (File f : fList) {
-                    if (f.getName().startsWith(id)) {
-                        count++;
-                    }
-                }
-                if (count > 2) {
-                    sList.add(students.get(id));
-                }
-            }
-        } else {
+        printStudentsMoreThan(students, 2);
+    }
+
+    /**
+     * Prints the students who have registered for more than a number of
+     * programs that is entered by the user.
+     *
+     * @param students The StudentManagement object.
+     * @throws Exception if there is an error reading the number.
+     */
+    public void printStudentsMoreThan(StudentManagement students) throws Exception {
+        int n = InputFormatter.getInt("Enter number of programs: ", "Number must be from 0 to " + Integer.MAX_VALUE, 0, Integer.MAX_VALUE);
+        printStudentsMoreThan(students, n);
+    }
+
+    /**
+     * Prints the students who have registered for more than a number of
+     * programs, the students with the most registrations first.
+     *
+     * @param students The StudentManagement object.
+     * @param n The number of programs.
+     */
+    public void printStudentsMoreThan(StudentManagement students, int n) {
+        if (index.isEmpty()) {
             System.out.println("No forms have been saved yet!");
+            return;
         }
+        List<Student> sList = getStudentsWithMoreThan(n, students).getValue();
         if (!sList.isEmpty()) {
             students.showStudentTable(sList);
         } else {
-            System.out.println("There are no students that registered more than 2 program!");
+            System.out.println("There are no students that registered more than " + n + " program!");
+        }
+    }
+
+    /**
+     * Prints the students with the most registrations. The number of students
+     * is entered by the user.
+     *
+     * @param students The StudentManagement object.
+     * @throws Exception if there is an error reading the number.
+     */
+    public void printTopStudents(StudentManagement students) throws Exception {
+        if (index.isEmpty()) {
+            System.out.println("No forms have been saved yet!");
+            return;
         }
+        int n = InputFormatter.getInt("Enter number of students: ", "Number must be from 1 to " + Integer.MAX_VALUE, 1, Integer.MAX_VALUE);
+        List<String> ids = index.getTopStudents(n);
+        System.out.println("______________________________________________________");
+        System.out.println("|    ID    |         NAME         | NUMBER OF PROGRAMS |");
+        System.out.println("------------------------------------------------------");
+        for (String id : ids) {
+            Student st = students.get(id);
+            System.out.printf("| %-8s | %-20s | %-18d |\n", id, st == null ? "" : st.getName(), index.countPrograms(id));
+        }
+        System.out.println("______________________________________________________");
+    }
+
+    /**
+     * Gets the students who have registered for more than a number of
+     * programs, the students with the most registrations first.
+     *
+     * @param n The number of programs.
+     * @param students The StudentManagement object.
+     * @return The students, or the reason they cannot be found.
+     */
+    public Result<List<Student>> getStudentsWithMoreThan(int n, StudentManagement students) {
+        if (n < 0) {
+            return Result.fail("Number must be from 0 to " + Integer.MAX_VALUE);
+        }
+        return Result.ok(toStudents(students, index.getStudentsWithMoreThan(n)));
+    }
+
+    private List<Student> toStudents(StudentManagement students, List<String> ids) {
+        List<Student> sList = new ArrayList<>();
+        for (String id : ids) {
+            Student st = students.get(id);
+            if (st != null) {
+                sList.add(st);
+            }
+        }
+        return sList;
     }
 
     /**
@@ -186,23 +915,28 @@ public class RegistrationFormManagement {
      */
     public void countStudent(AboardProgramManagement programs) {
         String programId = InputFormatter.getString("Enter Program's ID: ", programExc, programIdRegex).toUpperCase();
-        if (programs.containsKey(programId)) {
-            File dir = new File(dirFile);
-            List<File> fList = Arrays.asList(dir.listFiles());
-            if (!fList.isEmpty()) {
-                int count = 0;
-                for (File f : fList) {
-                    if (f.getName().contains(programId + ".")) {
-                        count++;
-                    }
-                }
-                System.out.println("Number of students that registered the program: " + count);
-            } else {
-                System.out.println("No forms of this have been saved yet!");
-            }
+        Result<Integer> result = countStudents(programId, programs);
+        if (!result.isSuccess()) {
+            System.out.println(result.getError());
+        } else if (!index.isEmpty()) {
+            System.out.println("Number of students that registered the program: " + result.getValue());
         } else {
-            System.out.println("Program does not exist!");
+            System.out.println("No forms of this have been saved yet!");
+        }
+    }
+
+    /**
+     * Counts the number of students who have registered for a program.
+     *
+     * @param programId The ID of the program.
+     * @param programs The AboardProgramManagement object.
+     * @return The number of students, or the reason they cannot be counted.
+     */
+    public Result<Integer> countStudents(String programId, AboardProgramManagement programs) {
+        if (!programs.containsKey(programId)) {
+            return Result.fail("Program does not exist!");
         }
+        return Result.ok(index.countStudents(programId));
     }
 
 }
@@ -0,0 +1,145 @@
+package bussiness;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Represents an in-memory index of registrations between students and aboard
+ * programs. The students are also kept sorted by their number of
+ * registrations. The index can be read while registrations are added from
+ * other threads; the sets it returns are copies.
+ *
+ * @author Nguyen Truong Tho
+ */
+public class RegistrationIndex {
+
+    private final Map<String, Set<String>> programsByStudent = new HashMap<>();
+    private final Map<String, Set<String>> studentsByProgram = new HashMap<>();
+    private final TreeMap<Integer, Set<String>> studentsByCount = new TreeMap<>();
+
+    /**
+     * Adds a registration to the index.
+     *
+     * @param studentId The ID of the student.
+     * @param programId The ID of the program.
+     */
+    public synchronized void add(String studentId, String programId) {
+        Set<String> programs = programsByStudent.computeIfAbsent(studentId, k -> new TreeSet<>());
+        if (programs.add(programId)) {
+            studentsByProgram.computeIfAbsent(programId, k -> new TreeSet<>()).add(studentId);
+            int count = programs.size();
+            if (count > 1) {
+                Set<String> ids = studentsByCount.get(count - 1);
+                ids.remove(studentId);
+                if (ids.isEmpty()) {
+                    studentsByCount.remove(count - 1);
+                }
+            }
+            studentsByCount.computeIfAbsent(count, k -> new TreeSet<>()).add(studentId);
+        }
+    }
+
+    /**
+     * Gets the programs registered by a student.
+     *
+     * @param studentId The ID of the student.
+     * @return The IDs of the registered programs, never null.
+     */
+    public synchronized Set<String> getPrograms(String studentId) {
+        Set<String> programs = programsByStudent.get(studentId);
+        return programs == null ? Collections.<String>emptySet() : Collections.unmodifiableSet(new TreeSet<>(programs));
+    }
+
+    /**
+     * Gets the students registered for a program.
+     *
+     * @param programId The ID of the program.
+     * @return The IDs of the registered students, never null.
+     */
+    public synchronized Set<String> getStudents(String programId) {
+        Set<String> students = studentsByProgram.get(programId);
+        return students == null ? Collections.<String>emptySet() : Collections.unmodifiableSet(new TreeSet<>(students));
+    }
+
+    /**
+     * Counts the students registered for a program.
+     *
+     * @param programId The ID of the program.
+     * @return The number of registered students.
+     */
+    public synchronized int countStudents(String programId) {
+        Set<String> students = studentsByProgram.get(programId);
+        return students == null ? 0 : students.size();
+    }
+
+    /**
+     * Counts the programs registered by a student.
+     *
+     * @param studentId The ID of the student.
+     * @return The number of registered programs.
+     */
+    public synchronized int countPrograms(String studentId) {
+        Set<String> programs = programsByStudent.get(studentId);
+        return programs == null ? 0 : programs.size();
+    }
+
+    /**
+     * Gets the students registered for more than a number of programs, the
+     * students with the most registrations first.
+     *
+     * @param n The number of programs.
+     * @return The IDs of the students.
+     */
+    public synchronized List<String> getStudentsWithMoreThan(int n) {
+        List<String> ids = new ArrayList<>();
+        for (Set<String> students : studentsByCount.tailMap(n, false).descendingMap().values()) {
+            ids.addAll(students);
+        }
+        return ids;
+    }
+
+    /**
+     * Gets the students with the most registrations.
+     *
+     * @param n The largest number of students to get.
+     * @return The IDs of the students, the students with the most
+     * registrations first.
+     */
+    public synchronized List<String> getTopStudents(int n) {
+        List<String> ids = new ArrayList<>();
+        for (Set<String> students : studentsByCount.descendingMap().values()) {
+            for (String id : students) {
+                if (ids.size() == n) {
+                    return ids;
+                }
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Gets the students that have at least one registration.
+     *
+     * @return The IDs of the registered students.
+     */
+    public synchronized Set<String> getStudentIds() {
+        return Collections.unmodifiableSet(new HashSet<>(programsByStudent.keySet()));
+    }
+
+    /**
+     * Checks whether the index has no registrations.
+     *
+     * @return true if there are no registrations; otherwise, false.
+     */
+    public synchronized boolean isEmpty() {
+        return programsByStudent.isEmpty();
+    }
+}
@@ -0,0 +1,139 @@
+package bussiness;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Represents an interval tree over the registration windows of aboard
+ * programs. The windows are kept in an array sorted by their start, which is
+ * read as a balanced tree whose root is the middle of the array; each node
+ * also holds the latest end of its subtree. The array is rebuilt on the first
+ * query after a change.
+ *
+ * @author Nguyen Truong Tho
+ */
+public class RegistrationWindowIndex {
+
+    private final Map<String, long[]> windows = new HashMap<>();
+    private String[] ids = new String[0];
+    private long[] starts = new long[0];
+    private long[] ends = new long[0];
+    private long[] maxEnds = new long[0];
+    private boolean isChanged = false;
+
+    /**
+     * Adds the registration window of a program, replacing the one it had
+     * before. A program without both dates is not added.
+     *
+     * @param id The ID of the program.
+     * @param from The first day of registration.
+     * @param end The last day of registration.
+     */
+    public void add(String id, LocalDate from, LocalDate end) {
+        if (from == null || end == null) {
+            remove(id);
+            return;
+        }
+        windows.put(id, new long[]{from.toEpochDay(), end.toEpochDay()});
+        isChanged = true;
+    }
+
+    /**
+     * Removes the registration window of a program.
+     *
+     * @param id The ID of the program.
+     */
+    public void remove(String id) {
+        if (windows.remove(id) != null) {
+            isChanged = true;
+        }
+    }
+
+    /**
+     * Finds the programs that accept registration on a date, the first and
+     * last day of a window included.
+     *
+     * @param date The date.
+     * @return The IDs of the programs in ascending order.
+     */
+    public TreeSet<String> findOpen(LocalDate date) {
+        if (isChanged) {
+            build();
+        }
+        TreeSet<String> result = new TreeSet<>();
+        find(0, ids.length, date.toEpochDay(), result);
+        return result;
+    }
+
+    /**
+     * Checks whether a program accepts registration on a date.
+     *
+     * @param id The ID of the program.
+     * @param date The date.
+     * @return true if the date is inside the window of the program; otherwise,
+     * false.
+     */
+    public boolean isOpen(String id, LocalDate date) {
+        long[] window = windows.get(id);
+        long day = date.toEpochDay();
+        return window != null && window[0] <= day && day <= window[1];
+    }
+
+    /**
+     * Collects the windows of the subtree held by a range of the array that
+     * contain a day.
+     *
+     * @param lo The first position of the range.
+     * @param hi The position after the last one of the range.
+     * @param time The epoch day.
+     * @param result The set the IDs are added to.
+     */
+    private void find(int lo, int hi, long time, Set<String> result) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (maxEnds[mid] < time) {
+                return;
+            }
+            find(lo, mid, time, result);
+            if (starts[mid] > time) {
+                return;
+            }
+            if (ends[mid] >= time) {
+                result.add(ids[mid]);
+            }
+            lo = mid + 1;
+        }
+    }
+
+    private void build() {
+        List<Map.Entry<String, long[]>> sorted = new ArrayList<>(windows.entrySet());
+        sorted.sort((a, b) -> Long.compare(a.getValue()[0], b.getValue()[0]));
+        int n = sorted.size();
+        ids = new String[n];
+        starts = new long[n];
+        ends = new long[n];
+        maxEnds = new long[n];
+        for (int i = 0; i < n; i++) {
+            Map.Entry<String, long[]> e = sorted.get(i);
+            ids[i] = e.getKey();
+            starts[i] = e.getValue()[0];
+            ends[i] = e.getValue()[1];
+        }
+        buildMaxEnd(0, n);
+        isChanged = false;
+    }
+
+    private long buildMaxEnd(int lo, int hi) {
+        if (lo >= hi) {
+            return Long.MIN_VALUE;
+        }
+        int mid = (lo + hi) >>> 1;
+        maxEnds[mid] = Math.max(ends[mid], Math.max(buildMaxEnd(lo, mid), buildMaxEnd(mid + 1, hi)));
+        return maxEnds[mid];
+    }
+}
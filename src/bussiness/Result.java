@@ -0,0 +1,68 @@
+package bussiness;
+
+/**
+ * Represents the outcome of an operation of the management classes: either
+ * the value it produced, or the reason it failed.
+ *
+ * @author Nguyen Truong Tho
+ * @param <T> The type of the value.
+ */
+public class Result<T> {
+
+    private final T value;
+    private final String error;
+
+    private Result(T value, String error) {
+        this.value = value;
+        this.error = error;
+    }
+
+    /**
+     * Creates the result of an operation that succeeded.
+     *
+     * @param <T> The type of the value.
+     * @param value The value the operation produced.
+     * @return The result.
+     */
+    public static <T> Result<T> ok(T value) {
+        return new Result<>(value, null);
+    }
+
+    /**
+     * Creates the result of an operation that failed.
+     *
+     * @param <T> The type of the value.
+     * @param error The reason the operation failed.
+     * @return The result.
+     */
+    public static <T> Result<T> fail(String error) {
+        return new Result<>(null, error);
+    }
+
+    /**
+     * Checks whether the operation succeeded.
+     *
+     * @return true if the operation succeeded; otherwise, false.
+     */
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    /**
+     * Get the value of value
+     *
+     * @return the value the operation produced, or null if it failed
+     */
+    public T getValue() {
+        return value;
+    }
+
+    /**
+     * Get the value of error
+     *
+     * @return the reason the operation failed, or null if it succeeded
+     */
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,203 @@
+package bussiness;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import model.Registration;
+import tools.RegistrationStore;
+
+/**
+ * Keeps the number of seats taken in each aboard program and the waitlist of
+ * the programs that are full. A seat is reserved with a compare-and-set on the
+ * counter of its program, so registrations running at the same time never
+ * take more seats than the capacity of the program. The waitlists are kept in
+ * their own records file, in the order the requests arrived, and are only
+ * changed while holding the lock of the registry.
+ *
+ * @author Nguyen Truong Tho
+ */
+public class SeatRegistry {
+
+    private final Map<String, AtomicInteger> taken = new ConcurrentHashMap<>();
+    private final Map<String, ConcurrentLinkedQueue<Registration>> waitlists = new ConcurrentHashMap<>();
+    private final RegistrationStore waitlistStore;
+
+    /**
+     * Initializes a new instance of the SeatRegistry class and loads the
+     * waitlists. A waitlist file in an older format is rewritten in the
+     * current one.
+     *
+     * @param waitlistFile The name of the file of waitlisted requests.
+     */
+    public SeatRegistry(String waitlistFile) {
+        waitlistStore = new RegistrationStore(waitlistFile);
+        for (Registration r : waitlistStore.loadAll()) {
+            getWaitlist(r.getProgramId()).add(r);
+        }
+        try {
+            if (waitlistStore.isOldVersion()) {
+                saveWaitlists();
+            }
+        } catch (IOException e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+    }
+
+    private AtomicInteger getCounter(String programId) {
+        return taken.computeIfAbsent(programId, k -> new AtomicInteger());
+    }
+
+    private ConcurrentLinkedQueue<Registration> getWaitlist(String programId) {
+        return waitlists.computeIfAbsent(programId, k -> new ConcurrentLinkedQueue<>());
+    }
+
+    /**
+     * Counts a seat that is already taken, whatever the capacity of the
+     * program. It is used for the saved registrations.
+     *
+     * @param programId The ID of the program.
+     */
+    public void claim(String programId) {
+        getCounter(programId).incrementAndGet();
+    }
+
+    /**
+     * Reserves a seat in a program if there is one left.
+     *
+     * @param programId The ID of the program.
+     * @param capacity The number of seats of the program, 0 for unlimited.
+     * @return true if the seat has been reserved; false if the program is
+     * full.
+     */
+    public boolean tryReserve(String programId, int capacity) {
+        AtomicInteger counter = getCounter(programId);
+        if (capacity <= 0) {
+            counter.incrementAndGet();
+            return true;
+        }
+        while (true) {
+            int current = counter.get();
+            if (current >= capacity) {
+                return false;
+            }
+            if (counter.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Gives back a seat reserved in a program.
+     *
+     * @param programId The ID of the program.
+     */
+    public void release(String programId) {
+        getCounter(programId).decrementAndGet();
+    }
+
+    /**
+     * Gets the number of seats taken in a program.
+     *
+     * @param programId The ID of the program.
+     * @return The number of seats taken.
+     */
+    public int getTaken(String programId) {
+        AtomicInteger counter = taken.get(programId);
+        return counter == null ? 0 : counter.get();
+    }
+
+    /**
+     * Puts a registration request at the end of the waitlist of its program,
+     * unless the student is already on it. The check, the file and the queue
+     * are changed under one lock, so a student is never put on a waitlist
+     * twice and no request is lost while the waitlist file is rewritten.
+     *
+     * @param r The registration request.
+     * @return true if the request has been put on the waitlist; false if the
+     * student is already on it.
+     * @throws IOException if there is an error during saving.
+     */
+    public synchronized boolean addToWaitlist(Registration r) throws IOException {
+        if (isWaiting(r)) {
+            return false;
+        }
+        waitlistStore.append(r);
+        getWaitlist(r.getProgramId()).add(r);
+        return true;
+    }
+
+    /**
+     * Checks whether a student is on the waitlist of a program.
+     *
+     * @param r The registration request of the student.
+     * @return true if the student is on the waitlist; otherwise, false.
+     */
+    public synchronized boolean isWaiting(Registration r) {
+        ConcurrentLinkedQueue<Registration> queue = waitlists.get(r.getProgramId());
+        if (queue != null) {
+            for (Registration w : queue) {
+                if (w.getFormName().equals(r.getFormName())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the IDs of the programs that have a waitlist.
+     *
+     * @return The IDs of the programs.
+     */
+    public List<String> getWaitingPrograms() {
+        List<String> list = new ArrayList<>();
+        for (Map.Entry<String, ConcurrentLinkedQueue<Registration>> entry : waitlists.entrySet()) {
+            if (!entry.getValue().isEmpty()) {
+                list.add(entry.getKey());
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Takes the requests at the head of the waitlist of a program for as long
+     * as a seat can be reserved for them. The seats of the returned requests
+     * are reserved.
+     *
+     * @param programId The ID of the program.
+     * @param capacity The number of seats of the program, 0 for unlimited.
+     * @return The requests taken off the waitlist, in waitlist order.
+     */
+    public synchronized List<Registration> promote(String programId, int capacity) {
+        List<Registration> list = new ArrayList<>();
+        ConcurrentLinkedQueue<Registration> queue = waitlists.get(programId);
+        if (queue != null) {
+            while (!queue.isEmpty() && tryReserve(programId, capacity)) {
+                Registration r = queue.poll();
+                if (r == null) {
+                    release(programId);
+                    break;
+                }
+                list.add(r);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Rewrites the waitlist file with the requests still waiting.
+     *
+     * @throws IOException if there is an error during saving.
+     */
+    public synchronized void saveWaitlists() throws IOException {
+        List<Registration> list = new ArrayList<>();
+        for (ConcurrentLinkedQueue<Registration> queue : waitlists.values()) {
+            list.addAll(queue);
+        }
+        waitlistStore.replaceAll(list);
+    }
+}
@@ -0,0 +1,141 @@
+package bussiness;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import model.Student;
+
+/**
+ * Represents the indexes of students by email, phone, passport and major.
+ * Email, phone and passport belong to at most one student.
+ *
+ * @author Nguyen Truong Tho
+ */
+public class StudentIndex {
+
+    private final Map<String, String> byEmail = new HashMap<>();
+    private final Map<String, String> byPhone = new HashMap<>();
+    private final Map<String, String> byPassport = new HashMap<>();
+    private final Map<String, Set<String>> byMajor = new HashMap<>();
+
+    /**
+     * Adds a student to the indexes. A value that already belongs to another
+     * student keeps pointing to that student.
+     *
+     * @param st The student to add.
+     */
+    public void add(Student st) {
+        putIfAbsent(byEmail, emailKey(st.getEmail()), st.getId());
+        putIfAbsent(byPhone, st.getPhone(), st.getId());
+        putIfAbsent(byPassport, passportKey(st.getPassport()), st.getId());
+        if (st.getMajor() != null) {
+            byMajor.computeIfAbsent(st.getMajor().toUpperCase(), k -> new TreeSet<>()).add(st.getId());
+        }
+    }
+
+    /**
+     * Removes a student from the indexes, using the values it has now.
+     *
+     * @param st The student to remove.
+     */
+    public void remove(Student st) {
+        removeIfOwner(byEmail, emailKey(st.getEmail()), st.getId());
+        removeIfOwner(byPhone, st.getPhone(), st.getId());
+        removeIfOwner(byPassport, passportKey(st.getPassport()), st.getId());
+        if (st.getMajor() != null) {
+            Set<String> ids = byMajor.get(st.getMajor().toUpperCase());
+            if (ids != null) {
+                ids.remove(st.getId());
+            }
+        }
+    }
+
+    /**
+     * Gets the student that owns an email.
+     *
+     * @param email The email to look up.
+     * @return The ID of the student, or null if no student has the email.
+     */
+    public String findByEmail(String email) {
+        return byEmail.get(emailKey(email));
+    }
+
+    /**
+     * Gets the student that owns a phone number.
+     *
+     * @param phone The phone number to look up.
+     * @return The ID of the student, or null if no student has the phone.
+     */
+    public String findByPhone(String phone) {
+        return byPhone.get(phone);
+    }
+
+    /**
+     * Gets the student that owns a passport.
+     *
+     * @param passport The passport to look up.
+     * @return The ID of the student, or null if no student has the passport.
+     */
+    public String findByPassport(String passport) {
+        return byPassport.get(passportKey(passport));
+    }
+
+    /**
+     * Gets the students of a major.
+     *
+     * @param major The major to look up.
+     * @return The IDs of the students, never null.
+     */
+    public Set<String> findByMajor(String major) {
+        Set<String> ids = byMajor.get(major.toUpperCase());
+        return ids == null ? Collections.<String>emptySet() : Collections.unmodifiableSet(ids);
+    }
+
+    /**
+     * Checks whether the email, phone or passport of a student already
+     * belongs to another student.
+     *
+     * @param id The ID of the student.
+     * @param email The email, or null to skip the check.
+     * @param phone The phone number, or null to skip the check.
+     * @param passport The passport, or null to skip the check.
+     * @return The message of the first conflict, or null if there is none.
+     */
+    public String getConflict(String id, String email, String phone, String passport) {
+        String owner = email == null ? null : findByEmail(email);
+        if (owner != null && !owner.equals(id)) {
+            return "Email already belongs to student " + owner + "!";
+        }
+        owner = phone == null ? null : findByPhone(phone);
+        if (owner != null && !owner.equals(id)) {
+            return "Phone already belongs to student " + owner + "!";
+        }
+        owner = passport == null ? null : findByPassport(passport);
+        if (owner != null && !owner.equals(id)) {
+            return "Passport already belongs to student " + owner + "!";
+        }
+        return null;
+    }
+
+    private static String emailKey(String email) {
+        return email == null ? null : email.toLowerCase();
+    }
+
+    private static String passportKey(String passport) {
+        return passport == null ? null : passport.trim().toUpperCase();
+    }
+
+    private static void putIfAbsent(Map<String, String> map, String key, String id) {
+        if (key != null) {
+            map.putIfAbsent(key, id);
+        }
+    }
+
+    private static void removeIfOwner(Map<String, String> map, String key, String id) {
+        if (key != null) {
+            map.remove(key, id);
+        }
+    }
+}
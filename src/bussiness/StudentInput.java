@@ -0,0 +1,169 @@
+package bussiness;
+
+/**
+ * Represents the values of a student given to StudentManagement. When a
+ * student is updated, a value that is null or empty is kept unchanged.
+ *
+ * @author Nguyen Truong Tho
+ */
+public class StudentInput {
+
+    private String id;
+    private String name;
+    private String major;
+    private String email;
+    private String phone;
+    private String passport;
+    private String address;
+
+    /**
+     * Initializes a new instance of the StudentInput class with no values.
+     */
+    public StudentInput() {
+    }
+
+    /**
+     * Initializes a new instance of the StudentInput class.
+     *
+     * @param id the ID of the student
+     * @param name the name of the student
+     * @param email the email address of the student
+     * @param phone the phone number of the student
+     * @param passport the passport number of the student
+     * @param address the address of the student
+     */
+    public StudentInput(String id, String name, String email, String phone, String passport, String address) {
+        this.id = id;
+        this.name = name;
+        this.email = email;
+        this.phone = phone;
+        this.passport = passport;
+        this.address = address;
+    }
+
+    /**
+     * Get the value of id
+     *
+     * @return the ID of the student
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Set the value of id
+     *
+     * @param id the ID of the student
+     */
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    /**
+     * Get the value of name
+     *
+     * @return the name of the student
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Set the value of name
+     *
+     * @param name the name of the student
+     */
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Get the value of major
+     *
+     * @return the major of the student
+     */
+    public String getMajor() {
+        return major;
+    }
+
+    /**
+     * Set the value of major
+     *
+     * @param major the major of the student
+     */
+    public void setMajor(String major) {
+        this.major = major;
+    }
+
+    /**
+     * Get the value of email
+     *
+     * @return the email address of the student
+     */
+    public String getEmail() {
+        return email;
+    }
+
+    /**
+     * Set the value of email
+     *
+     * @param email the email address of the student
+     */
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    /**
+     * Get the value of phone
+     *
+     * @return the phone number of the student
+     */
+    public String getPhone() {
+        return phone;
+    }
+
+    /**
+     * Set the value of phone
+     *
+     * @param phone the phone number of the student
+     */
+    public void setPhone(String phone) {
+        this.phone = phone;
+    }
+
+    /**
+     * Get the value of passport
+     *
+     * @return the passport number of the student
+     */
+    public String getPassport() {
+        return passport;
+    }
+
+    /**
+     * Set the value of passport
+     *
+     * @param passport the passport number of the student
+     */
+    public void setPassport(String passport) {
+        this.passport = passport;
+    }
+
+    /**
+     * Get the value of address
+     *
+     * @return the address of the student
+     */
+    public String getAddress() {
+        return address;
+    }
+
+    /**
+     * Set the value of address
+     *
+     * @param address the address of the student
+     */
+    public void setAddress(String address) {
+        this.address = address;
+    }
+}
@@ -1,33 +1,149 @@
 package bussiness;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import tools.InputFormatter;
-import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.List;
+import java.util.function.Consumer;
 import model.Student;
 import tools.FileIO;
+import tools.Journal;
+import tools.RecordMap;
+import tools.StudentCodec;
+import tools.Validator;
 
 /**
- * Represents a management class for students.
+ * Represents a management class for students. The students are kept in a
+ * concurrent record map, so they can be read from several threads without
+ * locking; changes to the email, phone, passport and major indexes are made
+ * one at a time.
  *
  * @author Nguyen Truong Tho
  */
-public class StudentManagement extends HashMap<String, Student> {
+public class StudentManagement {
 
     private final String studentIdRegex = "^(([Ss][EeBb])|([Gg][Dd])|([Mm][Cc]))([0-9]{6,6})$";
     private final String studentExc = "Student's ID must be valid (include major and 6 digit)!";
     private final String studentsFile = "src\\file\\students.dat";
-    private boolean isSaved = true;
+    private final Journal<Student> journal = new Journal<>("src\\file\\students.log", new StudentCodec());
+    private final int compactSize = 1000;
+    private final RecordMap<Student> students;
+    private final Object saveLock = new Object();
+    private Runnable onChange;
+    private StudentIndex index;
+    private volatile boolean isSaved = true;
 
     /**
-     * Constructs a new instance of StudentManagement and loads students from
-     * file.
+     * Constructs a new instance of StudentManagement and opens the students
+     * file. Students are read from it on first use; changes journaled after
+     * the last save are applied on top.
      */
     public StudentManagement() {
-        List<Student> students = FileIO.loadData(studentsFile);
-        for (Student st : students) {
-            this.put(st.getId(), st);
+        students = new RecordMap<>(FileIO.openSnapshot(studentsFile, new StudentCodec()));
+        List<Student> changes = journal.replay();
+        for (Student st : changes) {
+            students.put(st.getId(), st);
         }
+        if (!changes.isEmpty()) {
+            setIsSaved(false);
+        }
+    }
+
+    /**
+     * Gets the student with an ID, reading it from the data file on first
+     * use.
+     *
+     * @param id The ID of the student.
+     * @return The student, or null if it does not exist.
+     */
+    public Student get(String id) {
+        return students.get(id);
+    }
+
+    /**
+     * Checks whether a student with an ID exists.
+     *
+     * @param id The ID of the student.
+     * @return true if the student exists; otherwise, false.
+     */
+    public boolean containsKey(String id) {
+        return students.containsKey(id);
+    }
+
+    /**
+     * Checks whether there are no students.
+     *
+     * @return true if there are no students; otherwise, false.
+     */
+    public boolean isEmpty() {
+        return students.isEmpty();
+    }
+
+    /**
+     * Gets the number of students.
+     *
+     * @return The number of students.
+     */
+    public int size() {
+        return students.size();
+    }
+
+    /**
+     * Gets a copy of all students.
+     *
+     * @return The read-only list of students.
+     */
+    public List<Student> values() {
+        return students.values();
+    }
+
+    /**
+     * Adds a student if its ID is not taken yet, and keeps the email, phone,
+     * passport and major indexes up to date.
+     *
+     * @param st The student.
+     * @return true if the student has been added; false if the ID is taken.
+     */
+    public boolean add(Student st) {
+        if (!students.add(st.getId(), st)) {
+            return false;
+        }
+        synchronized (this) {
+            if (index != null) {
+                index.add(st);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Changes a student and keeps the email, phone, passport and major
+     * indexes up to date. The change is made to a copy that then replaces
+     * the student, so readers see either the old or the new student.
+     *
+     * @param id The ID of the student.
+     * @param change The change to make to the student.
+     * @return The changed student, or null if the student does not exist.
+     */
+    public synchronized Student update(String id, Consumer<Student> change) {
+        Student st = students.get(id);
+        if (st == null) {
+            return null;
+        }
+        if (index != null) {
+            index.remove(st);
+        }
+        st = students.update(id, old -> {
+            Student copy = new Student(old);
+            change.accept(copy);
+            return copy;
+        });
+        if (index != null) {
+            index.add(st);
+        }
+        return st;
     }
 
     /**
@@ -48,91 +164,405 @@ public class StudentManagement extends HashMap<String, Student> {
         this.isSaved = isSaved;
     }
 
+    /**
+     * Sets the action to run after each change has been journaled.
+     *
+     * @param onChange The action to run, or null for none.
+     */
+    public void setOnChange(Runnable onChange) {
+        this.onChange = onChange;
+    }
+
+    /**
+     * Gets the email, phone, passport and major indexes, building them on
+     * first use.
+     *
+     * @return The student indexes.
+     */
+    private synchronized StudentIndex getIndex() {
+        if (index == null) {
+            StudentIndex built = new StudentIndex();
+            for (Student st : this.values()) {
+                built.add(st);
+            }
+            index = built;
+        }
+        return index;
+    }
+
+    /**
+     * Finds the student with an email.
+     *
+     * @param email The email to look up.
+     * @return The student, or null if no student has the email.
+     */
+    public synchronized Student findByEmail(String email) {
+        String id = getIndex().findByEmail(email);
+        return id == null ? null : this.get(id);
+    }
+
+    /**
+     * Finds the student with a phone number.
+     *
+     * @param phone The phone number to look up.
+     * @return The student, or null if no student has the phone number.
+     */
+    public synchronized Student findByPhone(String phone) {
+        String id = getIndex().findByPhone(phone);
+        return id == null ? null : this.get(id);
+    }
+
+    /**
+     * Finds the student with a passport.
+     *
+     * @param passport The passport to look up.
+     * @return The student, or null if no student has the passport.
+     */
+    public synchronized Student findByPassport(String passport) {
+        String id = getIndex().findByPassport(passport);
+        return id == null ? null : this.get(id);
+    }
+
+    /**
+     * Finds the students of a major.
+     *
+     * @param major The major to look up.
+     * @return The list of students of the major.
+     */
+    public synchronized List<Student> findByMajor(String major) {
+        List<Student> list = new ArrayList<>();
+        for (String id : getIndex().findByMajor(major)) {
+            list.add(this.get(id));
+        }
+        return list;
+    }
+
+    /**
+     * Checks whether an email, phone number or passport already belongs to
+     * another student.
+     *
+     * @param id The ID of the student that will own the values.
+     * @param email The email, or null to skip the check.
+     * @param phone The phone number, or null to skip the check.
+     * @param passport The passport, or null to skip the check.
+     * @return The message of the first conflict, or null if there is none.
+     */
+    public synchronized String getConflict(String id, String email, String phone, String passport) {
+        return getIndex().getConflict(id, email, phone, passport);
+    }
+
     /**
      * Displays the list of students.
      */
     public void displayStudent() {
         if (!this.isEmpty()) {
-            showStudentTable(new ArrayList<>(this.values()));
+            showStudentTable(this.values());
         } else {
             System.out.println("There are no students!");
         }
     }
 
     /**
-     * Adds a new student to the student management system.
+     * Adds a new student to the student management system. The values are
+     * entered by the user.
      */
     public void addStudent() {
         String id = InputFormatter.getString("Enter Student's Id: ", studentExc, studentIdRegex).toUpperCase();
         if (!this.containsKey(id)) {
             String name = InputFormatter.getStringNotNull("Enter Student's Name: ");
-            String major = id.substring(0, 2);
             String email = InputFormatter.getMail("Enter Email: ", "@fpt.edu.vn");
+            String conflict;
+            while ((conflict = getConflict(id, email, null, null)) != null) {
+                System.out.println(conflict);
+                email = InputFormatter.getMail("Enter Email: ", "@fpt.edu.vn");
+            }
             String phone = InputFormatter.getPhone("Enter Phone: ");
+            while ((conflict = getConflict(id, null, phone, null)) != null) {
+                System.out.println(conflict);
+                phone = InputFormatter.getPhone("Enter Phone: ");
+            }
             String passport = InputFormatter.getStringNotNull("Enter Passport: ");
+            while ((conflict = getConflict(id, null, null, passport)) != null) {
+                System.out.println(conflict);
+                passport = InputFormatter.getStringNotNull("Enter Passport: ");
+            }
             String address = InputFormatter.getStringNotNull("Enter Address: ");
-            this.put(id, new Student(id, name, major, email, phone, passport, address));
-            System.out.println(name + " has been added!");
-            setIsSaved(false);
+            Result<Student> result = addStudent(new StudentInput(id, name, email, phone, passport, address));
+            if (result.isSuccess()) {
+                System.out.println(name + " has been added!");
+            } else {
+                System.out.println(result.getError());
+            }
         } else {
             System.out.println("Student's ID adready exist!");
         }
     }
 
     /**
-     * Updates the information of an existing student.
+     * Adds a new student. The major is taken from the ID.
+     *
+     * @param in The values of the student.
+     * @return The added student, or the reason the values are not valid or
+     * are already taken.
+     */
+    public Result<Student> addStudent(StudentInput in) {
+        String error = checkNewStudent(in).getMessage();
+        if (error != null) {
+            return Result.fail(error);
+        }
+        Student st = toStudent(in);
+        error = addIfFree(st);
+        if (error != null) {
+            return Result.fail(error);
+        }
+        logChange(st);
+        return Result.ok(st);
+    }
+
+    /**
+     * Adds a student if its ID, email, phone and passport are not taken yet.
+     * The check and the insert hold the same lock, so that two students with
+     * the same values cannot both be added.
+     *
+     * @param st The student.
+     * @return The message of the first conflict, or null if the student has
+     * been added.
+     */
+    private synchronized String addIfFree(Student st) {
+        String conflict = getConflict(st.getId(), st.getEmail(), st.getPhone(), st.getPassport());
+        if (conflict != null) {
+            return conflict;
+        }
+        return this.add(st) ? null : "Student's ID adready exist!";
+    }
+
+    /**
+     * Adds a student whose ID is not taken yet and journals it.
+     *
+     * @param st The student.
+     * @return true if the student has been added; false if the ID is taken.
+     */
+    public boolean addStudent(Student st) {
+        if (!this.add(st)) {
+            return false;
+        }
+        logChange(st);
+        return true;
+    }
+
+    /**
+     * Changes an existing student and journals it.
+     *
+     * @param id The ID of the student.
+     * @param change The change to make to the student.
+     * @return The changed student, or null if the student does not exist.
+     */
+    public Student updateStudent(String id, Consumer<Student> change) {
+        Student st = this.update(id, change);
+        if (st != null) {
+            logChange(st);
+        }
+        return st;
+    }
+
+    /**
+     * Updates the information of an existing student. The values are entered
+     * by the user; an empty value keeps the current one.
      */
     public void updateStudent() {
         String id = InputFormatter.getString("Enter Student's Id: ", "Student's ID must be in ", studentIdRegex).toUpperCase();
         if (this.containsKey(id)) {
-            String name = InputFormatter.getString("Enter Student's Name: ");
-            String major = InputFormatter.getString("Enter Major: ");
-            String email = InputFormatter.getString("Enter Email: ");
-            String phone = InputFormatter.getString("Enter Phone: ");
-            String passport = InputFormatter.getString("Enter Passport: ");
-            String address = InputFormatter.getString("Enter Address: ");
-            try {
-                if (!name.isEmpty() && !name.matches("^[a-zA-Z ]+$")) {
-                    throw new Exception("Name must only include letters!");
-                }
-                if (!major.isEmpty() && !major.matches("^([Ss][EeBb])|([Gg][Dd])|([Mm][Cc])$")) {
-                    throw new Exception("Major only accept as: SE,SB,GD,MC");
-                }
-                if (!email.isEmpty() && !email.matches("^([0-9a-zA-Z.]+)([@])([0-9a-zA-Z.]+)$")) {
-                    throw new Exception("Email must only include letter, number and end with domain \"@fpt.edu.vn\"");
-                }
-                if (!phone.isEmpty() && !phone.matches("^0[1-9]{1,1}[0-9]{8,8}$")) {
-                    throw new Exception("Phone must be valid!");
-                }
-            } catch (Exception e) {
-                System.out.println("Unvalid input! " + e.getMessage());
+            StudentInput in = new StudentInput();
+            in.setId(id);
+            in.setName(InputFormatter.getString("Enter Student's Name: "));
+            in.setMajor(InputFormatter.getString("Enter Major: "));
+            in.setEmail(InputFormatter.getString("Enter Email: "));
+            in.setPhone(InputFormatter.getString("Enter Phone: "));
+            in.setPassport(InputFormatter.getString("Enter Passport: "));
+            in.setAddress(InputFormatter.getString("Enter Address: "));
+            Result<Student> result = updateStudent(in);
+            if (result.isSuccess()) {
+                System.out.println("Update successful!");
+            } else {
+                System.out.println("Unvalid input! " + result.getError());
                 System.out.println("Update failure!");
-            } finally {
-                if (!name.isEmpty()) {
-                    this.get(id).setName(name);
-                }
-                if (!major.isEmpty()) {
-                    this.get(id).setMajor(major);
-                }
-                if (!email.isEmpty()) {
-                    this.get(id).setEmail(email);
-                }
-                if (!phone.isEmpty()) {
-                    this.get(id).setPhone(phone);
+            }
+        } else {
+            System.out.println("The student does not exist!");
+        }
+    }
+
+    /**
+     * Updates an existing student. A value that is null or empty keeps the
+     * current one. Nothing is changed if a value is not valid.
+     *
+     * @param in The ID of the student and the new values.
+     * @return The updated student, or the reason the student cannot be
+     * updated.
+     */
+    public Result<Student> updateStudent(StudentInput in) {
+        String id = in.getId() == null ? "" : in.getId().toUpperCase();
+        if (!this.containsKey(id)) {
+            return Result.fail("The student does not exist!");
+        }
+        String name = valueOf(in.getName());
+        String major = valueOf(in.getMajor());
+        String email = valueOf(in.getEmail());
+        String phone = valueOf(in.getPhone());
+        String passport = valueOf(in.getPassport());
+        String address = valueOf(in.getAddress());
+        Validator v = new Validator()
+                .check(name.isEmpty() || Validator.isName(name, false), "name", "Name must only include letters!")
+                .check(major.isEmpty() || Validator.isMajor(major), "major", "Major only accept as: SE,SB,GD,MC")
+                .check(email.isEmpty() || Validator.isMail(email, "@fpt.edu.vn"), "email", "Email must only include letter, number and end with domain \"@fpt.edu.vn\"")
+                .check(phone.isEmpty() || Validator.isPhone(phone), "phone", "Phone must be valid!");
+        if (!v.isValid()) {
+            return Result.fail(v.getMessage());
+        }
+        Consumer<Student> change = st -> {
+            if (!name.isEmpty()) {
+                st.setName(name);
+            }
+            if (!major.isEmpty()) {
+                st.setMajor(major);
+            }
+            if (!email.isEmpty()) {
+                st.setEmail(email);
+            }
+            if (!phone.isEmpty()) {
+                st.setPhone(phone);
+            }
+            if (!passport.isEmpty()) {
+                st.setPassport(passport);
+            }
+            if (!address.isEmpty()) {
+                st.setAddress(address);
+            }
+        };
+        Student updated;
+        synchronized (this) {
+            String conflict = getConflict(id, email.isEmpty() ? null : email, phone.isEmpty() ? null : phone, passport.isEmpty() ? null : passport);
+            if (conflict != null) {
+                return Result.fail(conflict);
+            }
+            updated = this.update(id, change);
+        }
+        if (updated == null) {
+            return Result.fail("The student does not exist!");
+        }
+        logChange(updated);
+        return Result.ok(updated);
+    }
+
+    private static String valueOf(String value) {
+        return value == null ? "" : value.trim();
+    }
+
+    /**
+     * Imports students from a CSV file whose name is entered by the user.
+     */
+    public void importStudents() {
+        String fileName = InputFormatter.getStringNotNull("Enter CSV file: ");
+        importStudents(fileName);
+    }
+
+    /**
+     * Imports students from a CSV file with the columns id, name, email,
+     * phone, passport and address. Rows that are not valid, or whose ID,
+     * email, phone or passport is already taken, are reported and skipped.
+     * The accepted students are added together and saved once.
+     *
+     * @param fileName The name of the CSV file.
+     * @return The number of students imported.
+     */
+    public int importStudents(String fileName) {
+        Set<String> ids = new HashSet<>();
+        StudentIndex imported = new StudentIndex();
+        CsvImporter<Student> importer = new CsvImporter<Student>() {
+            @Override
+            protected Student parse(List<String> row) throws Exception {
+                return parseStudent(row);
+            }
+
+            @Override
+            protected String accept(Student st) {
+                if (!ids.add(st.getId()) || containsKey(st.getId())) {
+                    return "Student's ID adready exist!";
                 }
-                if (!passport.isEmpty()) {
-                    this.get(id).setPassport(passport);
+                String conflict = imported.getConflict(st.getId(), st.getEmail(), st.getPhone(), st.getPassport());
+                if (conflict == null) {
+                    conflict = getConflict(st.getId(), st.getEmail(), st.getPhone(), st.getPassport());
                 }
-                if (!address.isEmpty()) {
-                    this.get(id).setEmail(email);
+                if (conflict != null) {
+                    ids.remove(st.getId());
+                    return conflict;
                 }
-                System.out.println("Update successful!");
-                setIsSaved(false);
+                imported.add(st);
+                return null;
             }
+        };
+        List<Student> list;
+        try {
+            list = importer.read(fileName);
+        } catch (IOException e) {
+            System.out.println("Error: " + e.getMessage());
+            return 0;
+        }
+        int count = 0;
+        for (Student st : list) {
+            if (addIfFree(st) == null) {
+                count++;
+            }
+        }
+        if (count > 0) {
+            setIsSaved(false);
+            saveStudents();
+        }
+        System.out.println(count + " students have been imported, " + (importer.getErrorCount() + list.size() - count) + " rows rejected.");
+        return count;
+    }
 
-        } else {
-            System.out.println("The student does not exist!");
+    /**
+     * Parses and validates the fields of a student: id, name, email, phone,
+     * passport and address. It can be called from several threads at once.
+     *
+     * @param row The fields.
+     * @return The student.
+     * @throws Exception if the fields are not valid, with the reason as
+     * message.
+     */
+    public Student parseStudent(List<String> row) throws Exception {
+        if (row.size() != 6) {
+            throw new Exception("Expected 6 columns: id, name, email, phone, passport, address");
         }
+        StudentInput in = new StudentInput(row.get(0), row.get(1), row.get(2), row.get(3), row.get(4), row.get(5));
+        String error = checkNewStudent(in).getMessage();
+        if (error != null) {
+            throw new Exception(error);
+        }
+        return toStudent(in);
+    }
+
+    /**
+     * Checks the values of a new student, without looking at the other
+     * students.
+     *
+     * @param in The values of the student.
+     * @return The Validator with the errors of the values.
+     */
+    private Validator checkNewStudent(StudentInput in) {
+        return new Validator()
+                .check(Validator.isStudentId(in.getId()), "id", studentExc)
+                .check(!valueOf(in.getName()).isEmpty(), "name", "Name must not be empty!")
+                .check(Validator.isMail(in.getEmail(), "@fpt.edu.vn"), "email", "Email must only include letters, numbers and end with domain @fpt.edu.vn")
+                .check(Validator.isPhone(in.getPhone()), "phone", "Number must be in phone number format!")
+                .check(!valueOf(in.getPassport()).isEmpty(), "passport", "Passport must not be empty!")
+                .check(!valueOf(in.getAddress()).isEmpty(), "address", "Address must not be empty!");
+    }
+
+    private static Student toStudent(StudentInput in) {
+        String id = in.getId().toUpperCase();
+        return new Student(id, in.getName(), id.substring(0, 2), in.getEmail(), in.getPhone(), in.getPassport(), in.getAddress());
     }
 
     /**
@@ -152,11 +582,46 @@ public class StudentManagement extends HashMap<String, Student> {
     }
 
     /**
-     * Saves the list of students to a file.
+     * Writes a changed student to the journal. The journal is compacted into
+     * the data file once it grows too large.
+     *
+     * @param st The changed student.
+     */
+    private void logChange(Student st) {
+        synchronized (this) {
+            setIsSaved(false);
+            try {
+                journal.append(st);
+            } catch (IOException e) {
+                System.out.println("Error: " + e.getMessage());
+            }
+        }
+        if (journal.size() >= compactSize) {
+            saveStudents();
+        }
+        if (onChange != null) {
+            onChange.run();
+        }
+    }
+
+    /**
+     * Saves the list of students to a file and clears the journal.
+     * Changes made while the file is being written stay in the journal.
      */
     public void saveStudents() {
-        FileIO.saveData(new ArrayList(this.values()), studentsFile);
-        setIsSaved(true);
+        synchronized (saveLock) {
+            List<Student> list;
+            synchronized (this) {
+                list = this.values();
+                journal.rotate();
+                setIsSaved(true);
+            }
+            if (list.isEmpty() || FileIO.saveData(list, studentsFile, new StudentCodec())) {
+                journal.dropRotated();
+            } else {
+                setIsSaved(false);
+            }
+        }
     }
 
 }
@@ -10,12 +10,29 @@ import tools.Menu;
  */
 public class Main {
 
+    /**
+     * Runs the console menu, or with the argument --server [port] serves the
+     * registration system to local clients instead (port 5050 by default).
+     *
+     * @param args The command line arguments.
+     * @throws Exception if an error occurs.
+     */
     public static void main(String[] args) throws Exception {
-        String[] mainOptions = {"Manage aboard programs", "Manage students", "Register a program for a student", "Report", "Quit program"};
+        if (args.length > 0 && args[0].equals("--server")) {
+            int port = args.length > 1 ? Integer.parseInt(args[1]) : 5050;
+            new Server(new IcManagement(), port).serve();
+            return;
+        }
+        String[] mainOptions = {"Manage aboard programs", "Manage students", "Register a program for a student",
+            "Register programs from a CSV file", "Regenerate changed registration forms", "Report", "Quit program"};
         String[] aboardOptions = {"Displays all aboard programs", "Add a new aboard program",
-            "Edit information a program by id", "Search and display a program by id", "Back to main menu"};
-        String[] studentOptions = {"Displays all students", "Add a new student", "Edit information a student by id", "Back to main menu"};
-        String[] reportOptions = {"Show registration by student’s id", "Show students registered more than 2 programs", "Count students that registered the program", "Back to main menu"};
+            "Edit information a program by id", "Search and display a program by id",
+            "Search programs by filters", "Display programs open on a date",
+            "Import programs from a CSV file", "Back to main menu"};
+        String[] studentOptions = {"Displays all students", "Add a new student", "Edit information a student by id",
+            "Import students from a CSV file", "Back to main menu"};
+        String[] reportOptions = {"Show registration by student’s id", "Show students registered more than 2 programs", "Count students that registered the program",
+            "Show students registered more than N programs", "Show top N students by registrations", "Back to main menu"};
         IcManagement ic = new IcManagement();
         int choice;
         int aboardChoice;
@@ -40,8 +57,17 @@ public class Main {
                             case 4:
                                 ic.searchProgram();
                                 break;
+                            case 5:
+                                ic.searchProgramByFilter();
+                                break;
+                            case 6:
+                                ic.displayOpenProgram();
+                                break;
+                            case 7:
+                                ic.importPrograms();
+                                break;
                         }
-                    } while (aboardChoice != 5);
+                    } while (aboardChoice != 8);
 
                     break;
                 case 2:
@@ -57,13 +83,22 @@ public class Main {
                             case 3:
                                 ic.editStudent();
                                 break;
+                            case 4:
+                                ic.importStudents();
+                                break;
                         }
-                    } while (studentChoice != 4);
+                    } while (studentChoice != 5);
                     break;
                 case 3:
                     ic.addRegistration();
                     break;
                 case 4:
+                    ic.registerFromCsv();
+                    break;
+                case 5:
+                    ic.regenerateForms();
+                    break;
+                case 6:
                     do {
                         reportChoice = Menu.getChoice(reportOptions);
                         switch (reportChoice) {
@@ -76,14 +111,20 @@ public class Main {
                             case 3:
                                 ic.countStudent();
                                 break;
+                            case 4:
+                                ic.printStudentsMoreThan();
+                                break;
+                            case 5:
+                                ic.printTopStudents();
+                                break;
                         }
-                    } while (reportChoice != 4);
+                    } while (reportChoice != 6);
 
                     break;
-                case 5:
+                case 7:
                     ic.quitProgram();
                     break;
             }
-        } while (choice >= 1 && choice <= 5);
+        } while (choice >= 1 && choice <= 7);
     }
 }
@@ -0,0 +1,91 @@
+package control;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records the latency of the requests served, per command. Each command keeps
+ * its count, total and maximum time and a histogram with one bucket per power
+ * of two microseconds, from which the percentiles are estimated. Recording
+ * takes no lock, so it can be done from every connection at once.
+ *
+ * @author Nguyen Truong Tho
+ */
+public class RequestMetrics {
+
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+
+    /**
+     * Records a request.
+     *
+     * @param command The command of the request.
+     * @param nanos The time it took in nanoseconds.
+     */
+    public void record(String command, long nanos) {
+        stats.computeIfAbsent(command, k -> new Stats()).record(nanos);
+    }
+
+    /**
+     * Formats the metrics of every command, one line per command.
+     *
+     * @return The lines of the metrics, in order of command.
+     */
+    public String[] format() {
+        Map<String, Stats> sorted = new TreeMap<>(stats);
+        String[] lines = new String[sorted.size()];
+        int i = 0;
+        for (Map.Entry<String, Stats> entry : sorted.entrySet()) {
+            Stats s = entry.getValue();
+            long count = s.count.sum();
+            lines[i++] = String.format("%-16s count=%d mean=%.1fus p50<=%dus p99<=%dus max=%.1fus", entry.getKey(), count,
+                    count == 0 ? 0 : s.totalNanos.sum() / 1e3 / count, s.percentile(0.5), s.percentile(0.99), s.maxNanos.get() / 1e3);
+        }
+        return lines;
+    }
+
+    /**
+     * Holds the latency of one command.
+     */
+    private static class Stats {
+
+        final LongAdder count = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final AtomicLong maxNanos = new AtomicLong();
+        final AtomicLongArray buckets = new AtomicLongArray(40);
+
+        void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            long max;
+            while (nanos > (max = maxNanos.get()) && !maxNanos.compareAndSet(max, nanos)) {
+                // another request raised the maximum, try again
+            }
+            long micros = Math.max(1, nanos / 1000);
+            buckets.incrementAndGet(63 - Long.numberOfLeadingZeros(micros));
+        }
+
+        /**
+         * Estimates a percentile as the upper bound of the bucket it falls
+         * in.
+         */
+        long percentile(double p) {
+            long total = 0;
+            for (int i = 0; i < buckets.length(); i++) {
+                total += buckets.get(i);
+            }
+            long rank = (long) Math.ceil(total * p);
+            long seen = 0;
+            for (int i = 0; i < buckets.length(); i++) {
+                seen += buckets.get(i);
+                if (seen >= rank && seen > 0) {
+                    return 1L << (i + 1);
+                }
+            }
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,372 @@
+package control;
+
+import bussiness.AboardProgramManagement;
+import bussiness.IcManagement;
+import bussiness.ProgramQuery;
+import bussiness.RegistrationFormManagement;
+import bussiness.RegistrationIndex;
+import bussiness.Result;
+import bussiness.StudentInput;
+import bussiness.StudentManagement;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import model.AboardProgram;
+import model.Student;
+import tools.Dates;
+import tools.Validator;
+
+/**
+ * Serves one shared IcManagement to many clients over a line-based protocol
+ * on the loopback interface. Each connection is served by a thread of its
+ * own, a virtual thread when the Java runtime has them. A request is one line:
+ * a command, then its fields separated by '|'. The answer is either "OK n"
+ * followed by n lines, or one line "ERR reason". The time of every request is
+ * recorded and shown by the STATS command.
+ *
+ * @author Nguyen Truong Tho
+ */
+public class Server implements Closeable {
+
+    private static final String[] HELP = {
+        "PROGRAMS",
+        "PROGRAM id",
+        "ADD_PROGRAM id|name|time|from|end|days|location;location|cost|content[|capacity]",
+        "EDIT_PROGRAM id|name|time|from|end|days|location;location|cost|content|capacity (empty keeps)",
+        "SEARCH_PROGRAMS name|time|location|open date|min cost|max cost (empty skips)",
+        "STUDENTS",
+        "STUDENT id",
+        "ADD_STUDENT id|name|email|phone|passport|address",
+        "EDIT_STUDENT id|name|email|phone|passport|address (empty keeps)",
+        "REGISTER student id|program id|date|parent's mail|parent's phone|location",
+        "REGISTRATIONS student id",
+        "MORE_THAN n",
+        "COUNT program id",
+        "STATS",
+        "QUIT"};
+
+    private final IcManagement ic;
+    private final StudentManagement students;
+    private final AboardProgramManagement programs;
+    private final RegistrationFormManagement registrations;
+    private final ServerSocket serverSocket;
+    private final ExecutorService executor;
+    private final RequestMetrics metrics = new RequestMetrics();
+
+    /**
+     * Initializes a new instance of the Server class listening on a port of
+     * the loopback interface.
+     *
+     * @param ic The IcManagement shared by all clients.
+     * @param port The port, or 0 for any free port.
+     * @throws IOException if the port cannot be opened.
+     */
+    public Server(IcManagement ic, int port) throws IOException {
+        this.ic = ic;
+        this.students = ic.getStudents();
+        this.programs = ic.getPrograms();
+        this.registrations = ic.getRegistrations();
+        this.serverSocket = new ServerSocket(port, 128, InetAddress.getLoopbackAddress());
+        this.executor = createExecutor();
+    }
+
+    /**
+     * Creates an executor that runs each connection on a virtual thread when
+     * the Java runtime has them, and on a new daemon thread otherwise.
+     */
+    private static ExecutorService createExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "server-connection");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    /**
+     * Gets the port the server listens on.
+     *
+     * @return The port.
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Gets the latency metrics of the requests served.
+     *
+     * @return The request metrics.
+     */
+    public RequestMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Accepts connections until the server is closed.
+     */
+    public void serve() {
+        System.out.println("Listening on " + serverSocket.getInetAddress().getHostAddress() + ":" + getPort());
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                executor.execute(() -> handle(socket));
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    System.out.println("Error: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops accepting connections and saves the pending changes.
+     *
+     * @throws IOException if there is an error closing the socket.
+     */
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        executor.shutdownNow();
+        ic.flush();
+    }
+
+    /**
+     * Serves the requests of a connection until the client quits or closes
+     * it.
+     *
+     * @param socket The connection.
+     */
+    private void handle(Socket socket) {
+        try (Socket s = socket;
+                BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+                PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(s.getOutputStream(), StandardCharsets.UTF_8)))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty()) {
+                    continue;
+                }
+                int sep = line.indexOf(' ');
+                String command = (sep < 0 ? line : line.substring(0, sep)).toUpperCase();
+                List<String> fields = sep < 0 ? Collections.<String>emptyList() : split(line.substring(sep + 1));
+                if (command.equals("QUIT")) {
+                    out.println("OK 0");
+                    out.flush();
+                    break;
+                }
+                long start = System.nanoTime();
+                List<String> lines;
+                try {
+                    lines = execute(command, fields);
+                } catch (Exception e) {
+                    lines = null;
+                    out.println("ERR " + e.getMessage());
+                }
+                metrics.record(isCommand(command) ? command : "UNKNOWN", System.nanoTime() - start);
+                if (lines != null) {
+                    out.println("OK " + lines.size());
+                    for (String l : lines) {
+                        out.println(l);
+                    }
+                }
+                out.flush();
+            }
+        } catch (IOException e) {
+            // the client has gone away
+        }
+    }
+
+    private static boolean isCommand(String command) {
+        for (String usage : HELP) {
+            if (usage.equals(command) || usage.startsWith(command + " ")) {
+                return true;
+            }
+        }
+        return command.equals("HELP");
+    }
+
+    private static List<String> split(String args) {
+        List<String> fields = new ArrayList<>();
+        for (String f : args.split("\\|", -1)) {
+            fields.add(f.trim());
+        }
+        return fields;
+    }
+
+    /**
+     * Runs a command.
+     *
+     * @param command The command, in upper case.
+     * @param f The fields of the request.
+     * @return The lines of the answer.
+     * @throws Exception if the request fails, with the reason as message.
+     */
+    private List<String> execute(String command, List<String> f) throws Exception {
+        switch (command) {
+            case "HELP":
+                return Arrays.asList(HELP);
+            case "PROGRAMS":
+                return programs.values().stream().map(Server::format).sorted().collect(Collectors.toList());
+            case "PROGRAM":
+                return Collections.singletonList(format(getProgram(field(f, 0))));
+            case "ADD_PROGRAM":
+                if (f.size() != 9 && f.size() != 10) {
+                    throw new Exception("Expected 9 or 10 fields: id, name, time, from, end, days, locations, cost, content, capacity");
+                }
+                return Collections.singletonList(format(value(programs.addProgram(programs.toInput(f)))));
+            case "EDIT_PROGRAM": {
+                if (f.size() != 10) {
+                    throw new Exception("Expected 10 fields: id, name, time, from, end, days, locations, cost, content, capacity");
+                }
+                AboardProgram ap = value(programs.updateProgram(programs.toInput(f)));
+                registrations.promoteWaitlist(students, programs);
+                return Collections.singletonList(format(ap));
+            }
+            case "SEARCH_PROGRAMS":
+                return programs.query(toQuery(f)).map(Server::format).collect(Collectors.toList());
+            case "STUDENTS":
+                return students.values().stream().map(Server::format).sorted().collect(Collectors.toList());
+            case "STUDENT":
+                return Collections.singletonList(format(getStudent(field(f, 0).toUpperCase())));
+            case "ADD_STUDENT":
+                return Collections.singletonList(format(value(students.addStudent(toStudentInput(f)))));
+            case "EDIT_STUDENT":
+                return Collections.singletonList(format(value(students.updateStudent(toStudentInput(f)))));
+            case "REGISTER":
+                return Collections.singletonList(value(registrations.register(registrations.parseRequest(f), students, programs)).getFormName());
+            case "REGISTRATIONS":
+                return value(registrations.getRegisteredPrograms(field(f, 0).toUpperCase(), students, programs)).stream()
+                        .map(Server::format).collect(Collectors.toList());
+            case "MORE_THAN": {
+                RegistrationIndex index = registrations.getIndex();
+                return value(registrations.getStudentsWithMoreThan(parseInt(field(f, 0), "Number"), students)).stream()
+                        .map(st -> format(st) + "|" + index.countPrograms(st.getId())).collect(Collectors.toList());
+            }
+            case "COUNT":
+                return Collections.singletonList(String.valueOf(value(registrations.countStudents(field(f, 0).toUpperCase(), programs))));
+            case "STATS":
+                return Arrays.asList(metrics.format());
+            default:
+                throw new Exception("Unknown command " + command + ", send HELP for the list of commands");
+        }
+    }
+
+    /**
+     * Gets the value of a result of the service layer.
+     *
+     * @param result The result.
+     * @return The value.
+     * @throws Exception if the result is a failure, with its reason as
+     * message.
+     */
+    private static <T> T value(Result<T> result) throws Exception {
+        if (!result.isSuccess()) {
+            throw new Exception(result.getError());
+        }
+        return result.getValue();
+    }
+
+    private static StudentInput toStudentInput(List<String> f) throws Exception {
+        if (f.size() != 6) {
+            throw new Exception("Expected 6 fields: id, name, email, phone, passport, address");
+        }
+        return new StudentInput(f.get(0), f.get(1), f.get(2), f.get(3), f.get(4), f.get(5));
+    }
+
+    private ProgramQuery toQuery(List<String> f) throws Exception {
+        ProgramQuery q = new ProgramQuery();
+        if (!field(f, 0).isEmpty()) {
+            q.setName(field(f, 0), false);
+        }
+        if (!field(f, 1).isEmpty()) {
+            q.setTime(field(f, 1));
+        }
+        if (!field(f, 2).isEmpty()) {
+            q.setLocation(field(f, 2));
+        }
+        if (!field(f, 3).isEmpty()) {
+            q.setOpenDate(parseDate(field(f, 3)));
+        }
+        q.setMinCost(field(f, 4).isEmpty() ? null : parseCost(field(f, 4)));
+        q.setMaxCost(field(f, 5).isEmpty() ? null : parseCost(field(f, 5)));
+        return q;
+    }
+
+    private AboardProgram getProgram(String id) throws Exception {
+        AboardProgram ap = programs.get(id);
+        if (ap == null) {
+            throw new Exception("The program does not exist!");
+        }
+        return ap;
+    }
+
+    private Student getStudent(String id) throws Exception {
+        Student st = students.get(id);
+        if (st == null) {
+            throw new Exception("The student does not exist!");
+        }
+        return st;
+    }
+
+    private static String field(List<String> f, int i) {
+        return i < f.size() ? f.get(i) : "";
+    }
+
+    private static int parseInt(String value, String name) throws Exception {
+        if (!Validator.isNumber(value)) {
+            throw new Exception(name + " must be a number from 0!");
+        }
+        return Integer.parseInt(value);
+    }
+
+    private static double parseCost(String value) throws Exception {
+        double cost;
+        try {
+            cost = Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new Exception("Cost must be a number!");
+        }
+        if (cost < 0) {
+            throw new Exception("Cost must greater than 0!");
+        }
+        return cost;
+    }
+
+    private static LocalDate parseDate(String value) throws Exception {
+        LocalDate date = Dates.parse(value);
+        if (date == null) {
+            throw new Exception("Wrong date format, the date must be in dd/mm/yyyy format!");
+        }
+        return date;
+    }
+
+    private static String format(AboardProgram ap) {
+        return ap.getId() + "|" + ap.getName() + "|" + ap.getTime() + "|" + Dates.format(ap.getFromRegistrationDate())
+                + "|" + Dates.format(ap.getEndRegistrationDate()) + "|" + ap.getDays() + "|" + String.join(";", ap.getLocation())
+                + "|" + String.format("%.0f", ap.getCost()) + "|" + ap.getContent() + "|" + ap.getCapacity();
+    }
+
+    private static String format(Student st) {
+        return st.getId() + "|" + st.getName() + "|" + st.getMajor() + "|" + st.getEmail() + "|" + st.getPhone()
+                + "|" + st.getPassport() + "|" + st.getAddress();
+    }
+}
@@ -1,25 +1,49 @@
 package model;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
 /**
- * Represents an abroad program.
+ * Represents an abroad program. The registration dates are LocalDate values,
+ * but they are serialized as java.util.Date values at midnight in the time
+ * zone of the system, as older versions saved them, so that the files those
+ * versions wrote can still be read.
  *
  * @author Nguyen Truong Tho
  */
 public class AboardProgram implements Serializable {
 
+    private static final long serialVersionUID = 4453683905949743837L;
+    private static final ObjectStreamField[] serialPersistentFields = {
+        new ObjectStreamField("id", String.class),
+        new ObjectStreamField("name", String.class),
+        new ObjectStreamField("time", String.class),
+        new ObjectStreamField("fromRegistrationDate", Date.class),
+        new ObjectStreamField("endRegistrationDate", Date.class),
+        new ObjectStreamField("days", int.class),
+        new ObjectStreamField("location", List.class),
+        new ObjectStreamField("cost", double.class),
+        new ObjectStreamField("content", String.class),
+        new ObjectStreamField("capacity", int.class)};
     private String id;
     private String name;
     private String time;
-    private Date fromRegistrationDate;
-    private Date endRegistrationDate;
+    private LocalDate fromRegistrationDate;
+    private LocalDate endRegistrationDate;
     private int days;
     private List<String> location;
     private double cost;
     private String content;
+    private int capacity;
 
     /**
      * Constructor of AboardProgram.
@@ -34,7 +58,7 @@ public class AboardProgram implements Serializable {
      * @param cost the cost of the program
      * @param content the content/description of the program
      */
-    public AboardProgram(String id, String name, String time, Date fromRegistrationDate, Date endRegistrationDate, int days, List<String> location, double cost, String content) {
+    public AboardProgram(String id, String name, String time, LocalDate fromRegistrationDate, LocalDate endRegistrationDate, int days, List<String> location, double cost, String content) {
         this.id = id;
         this.name = name;
         this.time = time;
@@ -46,6 +70,36 @@ public class AboardProgram implements Serializable {
         this.content = content;
     }
 
+    /**
+     * Constructor of AboardProgram with a limited number of seats.
+     *
+     * @param id the ID of the abroad program
+     * @param name the name of the abroad program
+     * @param time the time of the abroad program
+     * @param fromRegistrationDate the start date for program registration
+     * @param endRegistrationDate the end date for program registration
+     * @param days the number of days for the program
+     * @param location the list of program locations
+     * @param cost the cost of the program
+     * @param content the content/description of the program
+     * @param capacity the number of seats of the program, 0 for unlimited
+     */
+    public AboardProgram(String id, String name, String time, LocalDate fromRegistrationDate, LocalDate endRegistrationDate, int days, List<String> location, double cost, String content, int capacity) {
+        this(id, name, time, fromRegistrationDate, endRegistrationDate, days, location, cost, content);
+        this.capacity = capacity;
+    }
+
+    /**
+     * Constructor of AboardProgram that copies another abroad program. The
+     * list of locations is copied too.
+     *
+     * @param other the abroad program to copy
+     */
+    public AboardProgram(AboardProgram other) {
+        this(other.id, other.name, other.time, other.fromRegistrationDate, other.endRegistrationDate, other.days,
+                other.location == null ? null : new ArrayList<>(other.location), other.cost, other.content, other.capacity);
+    }
+
     /**
      * Get the value of id
      *
@@ -105,7 +159,7 @@ public class AboardProgram implements Serializable {
      *
      * @return the value of fromRegistrationDate
      */
-    public Date getFromRegistrationDate() {
+    public LocalDate getFromRegistrationDate() {
         return fromRegistrationDate;
     }
 
@@ -114,7 +168,7 @@ public class AboardProgram implements Serializable {
      *
      * @param fromRegistrationDate new value of fromRegistrationDate
      */
-    public void setFromRegistrationDate(Date fromRegistrationDate) {
+    public void setFromRegistrationDate(LocalDate fromRegistrationDate) {
         this.fromRegistrationDate = fromRegistrationDate;
     }
 
@@ -123,7 +177,7 @@ public class AboardProgram implements Serializable {
      *
      * @return the value of endRegistrationDate
      */
-    public Date getEndRegistrationDate() {
+    public LocalDate getEndRegistrationDate() {
         return endRegistrationDate;
     }
 
@@ -132,7 +186,7 @@ public class AboardProgram implements Serializable {
      *
      * @param endRegistrationDate new value of endRegistrationDate
      */
-    public void setEndRegistrationDate(Date endRegistrationDate) {
+    public void setEndRegistrationDate(LocalDate endRegistrationDate) {
         this.endRegistrationDate = endRegistrationDate;
     }
 
@@ -213,8 +267,64 @@ public class AboardProgram implements Serializable {
      *
      * @return a string representation of the AboardProgram object
      */
+    /**
+     * Get the value of capacity
+     *
+     * @return the number of seats of the program, 0 for unlimited
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Set the value of capacity
+     *
+     * @param capacity the number of seats of the program, 0 for unlimited
+     */
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("id", id);
+        fields.put("name", name);
+        fields.put("time", time);
+        fields.put("fromRegistrationDate", toDate(fromRegistrationDate));
+        fields.put("endRegistrationDate", toDate(endRegistrationDate));
+        fields.put("days", days);
+        fields.put("location", location);
+        fields.put("cost", cost);
+        fields.put("content", content);
+        fields.put("capacity", capacity);
+        out.writeFields();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        id = (String) fields.get("id", null);
+        name = (String) fields.get("name", null);
+        time = (String) fields.get("time", null);
+        fromRegistrationDate = toLocalDate((Date) fields.get("fromRegistrationDate", null));
+        endRegistrationDate = toLocalDate((Date) fields.get("endRegistrationDate", null));
+        days = fields.get("days", 0);
+        location = (List<String>) fields.get("location", null);
+        cost = fields.get("cost", 0.0);
+        content = (String) fields.get("content", null);
+        capacity = fields.get("capacity", 0);
+    }
+
+    private static Date toDate(LocalDate date) {
+        return date == null ? null : Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    private static LocalDate toLocalDate(Date date) {
+        return date == null ? null : Instant.ofEpochMilli(date.getTime()).atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+
     @Override
     public String toString() {
-        return "AboardProgram{" + "id=" + id + ", name=" + name + ", time=" + time + ", fromRegistrationDate=" + fromRegistrationDate + ", endRegistrationDate=" + endRegistrationDate + ", days=" + days + ", location=" + location + ", cost=" + cost + ", content=" + content + '}';
+        return "AboardProgram{" + "id=" + id + ", name=" + name + ", time=" + time + ", fromRegistrationDate=" + fromRegistrationDate + ", endRegistrationDate=" + endRegistrationDate + ", days=" + days + ", location=" + location + ", cost=" + cost + ", content=" + content + ", capacity=" + capacity + '}';
     }
 }
@@ -0,0 +1,164 @@
+package model;
+
+import java.time.LocalDate;
+
+/**
+ * Represents a registration of a student for an abroad program.
+ *
+ * @author Nguyen Truong Tho
+ */
+public class Registration {
+
+    private String studentId;
+    private String programId;
+    private LocalDate registrationDate;
+    private String parentMail;
+    private String parentPhone;
+    private String location;
+
+    /**
+     * Constructor of Registration.
+     *
+     * @param studentId the ID of the registered student
+     * @param programId the ID of the registered abroad program
+     * @param registrationDate the date of the registration
+     * @param parentMail the email address of the student's parents
+     * @param parentPhone the phone number of the student's parents
+     * @param location the chosen location of the program
+     */
+    public Registration(String studentId, String programId, LocalDate registrationDate, String parentMail, String parentPhone, String location) {
+        this.studentId = studentId;
+        this.programId = programId;
+        this.registrationDate = registrationDate;
+        this.parentMail = parentMail;
+        this.parentPhone = parentPhone;
+        this.location = location;
+    }
+
+    /**
+     * Get the value of studentId
+     *
+     * @return the value of studentId
+     */
+    public String getStudentId() {
+        return studentId;
+    }
+
+    /**
+     * Set the value of studentId
+     *
+     * @param studentId new value of studentId
+     */
+    public void setStudentId(String studentId) {
+        this.studentId = studentId;
+    }
+
+    /**
+     * Get the value of programId
+     *
+     * @return the value of programId
+     */
+    public String getProgramId() {
+        return programId;
+    }
+
+    /**
+     * Set the value of programId
+     *
+     * @param programId new value of programId
+     */
+    public void setProgramId(String programId) {
+        this.programId = programId;
+    }
+
+    /**
+     * Get the value of registrationDate
+     *
+     * @return the value of registrationDate
+     */
+    public LocalDate getRegistrationDate() {
+        return registrationDate;
+    }
+
+    /**
+     * Set the value of registrationDate
+     *
+     * @param registrationDate new value of registrationDate
+     */
+    public void setRegistrationDate(LocalDate registrationDate) {
+        this.registrationDate = registrationDate;
+    }
+
+    /**
+     * Get the value of parentMail
+     *
+     * @return the value of parentMail
+     */
+    public String getParentMail() {
+        return parentMail;
+    }
+
+    /**
+     * Set the value of parentMail
+     *
+     * @param parentMail new value of parentMail
+     */
+    public void setParentMail(String parentMail) {
+        this.parentMail = parentMail;
+    }
+
+    /**
+     * Get the value of parentPhone
+     *
+     * @return the value of parentPhone
+     */
+    public String getParentPhone() {
+        return parentPhone;
+    }
+
+    /**
+     * Set the value of parentPhone
+     *
+     * @param parentPhone new value of parentPhone
+     */
+    public void setParentPhone(String parentPhone) {
+        this.parentPhone = parentPhone;
+    }
+
+    /**
+     * Get the value of location
+     *
+     * @return the value of location
+     */
+    public String getLocation() {
+        return location;
+    }
+
+    /**
+     * Set the value of location
+     *
+     * @param location new value of location
+     */
+    public void setLocation(String location) {
+        this.location = location;
+    }
+
+    /**
+     * Gets the name of the form file of this registration.
+     *
+     * @return the form file name in the form STUDENTID_PROGRAMID.doc
+     */
+    public String getFormName() {
+        return studentId + "_" + programId + ".doc";
+    }
+
+    /**
+     * Returns a string representation of the Registration object.
+     *
+     * @return a string representation of the Registration object
+     */
+    @Override
+    public String toString() {
+        return "Registration{" + "studentId=" + studentId + ", programId=" + programId + ", registrationDate=" + registrationDate + ", parentMail=" + parentMail + ", parentPhone=" + parentPhone + ", location=" + location + '}';
+    }
+}
@@ -9,6 +9,7 @@ import java.io.Serializable;
  */
 public class Student implements Serializable {
 
+    private static final long serialVersionUID = -5583746771389419319L;
     private String id;
     private String name;
     private String major;
@@ -38,6 +39,15 @@ public class Student implements Serializable {
         this.address = address;
     }
 
+    /**
+     * Constructor of Student that copies another student.
+     *
+     * @param other the student to copy
+     */
+    public Student(Student other) {
+        this(other.id, other.name, other.major, other.email, other.phone, other.passport, other.address);
+    }
+
     /**
      * Get the value of id
      *
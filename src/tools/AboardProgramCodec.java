@@ -0,0 +1,88 @@
+package tools;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import model.AboardProgram;
+
+/**
+ * Provides the binary encoding of AboardProgram objects. Locations read by
+ * the same codec share one String instance per distinct location; the codec
+ * can read records from several threads at once. A record starts with a
+ * negative tag giving its layout version; records written before the tag
+ * existed start with the length of the ID and are read as version 1.
+ * Versions 1 and 2 hold the registration dates as epoch milliseconds,
+ * version 3 as epoch days.
+ *
+ * @author Nguyen Truong Tho
+ */
+public class AboardProgramCodec implements Codec<AboardProgram> {
+
+    /**
+     * The tag of records that end with the capacity of the program.
+     */
+    private static final int VERSION_2 = -2;
+
+    /**
+     * The tag of records whose registration dates are epoch days.
+     */
+    private static final int VERSION_3 = -3;
+
+    private final Map<String, String> locations = new ConcurrentHashMap<>();
+
+    @Override
+    public void write(DataOutput out, AboardProgram ap) throws IOException {
+        out.writeInt(VERSION_3);
+        Codec.writeString(out, ap.getId());
+        Codec.writeString(out, ap.getName());
+        Codec.writeString(out, ap.getTime());
+        Codec.writeDate(out, ap.getFromRegistrationDate());
+        Codec.writeDate(out, ap.getEndRegistrationDate());
+        out.writeInt(ap.getDays());
+        List<String> location = ap.getLocation();
+        out.writeInt(location == null ? -1 : location.size());
+        if (location != null) {
+            for (String str : location) {
+                Codec.writeString(out, str);
+            }
+        }
+        out.writeDouble(ap.getCost());
+        Codec.writeString(out, ap.getContent());
+        out.writeInt(ap.getCapacity());
+    }
+
+    @Override
+    public AboardProgram read(DataInput in) throws IOException {
+        int tag = in.readInt();
+        boolean hasTag = tag == VERSION_2 || tag == VERSION_3;
+        String id = hasTag ? Codec.readString(in) : Codec.readString(in, tag);
+        String name = Codec.readString(in);
+        String time = Codec.readString(in);
+        LocalDate fromRegistrationDate = tag == VERSION_3 ? Codec.readDate(in) : Codec.readEpochMilliDate(in);
+        LocalDate endRegistrationDate = tag == VERSION_3 ? Codec.readDate(in) : Codec.readEpochMilliDate(in);
+        int days = in.readInt();
+        int size = in.readInt();
+        List<String> location = null;
+        if (size >= 0) {
+            location = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                String str = Codec.readString(in);
+                location.add(str == null ? null : locations.computeIfAbsent(str, k -> k));
+            }
+        }
+        double cost = in.readDouble();
+        String content = Codec.readString(in);
+        int capacity = hasTag ? in.readInt() : 0;
+        return new AboardProgram(id, name, time, fromRegistrationDate, endRegistrationDate, days, location, cost, content, capacity);
+    }
+
+    @Override
+    public String getKey(AboardProgram ap) {
+        return ap.getId();
+    }
+}
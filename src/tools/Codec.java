@@ -0,0 +1,126 @@
+package tools;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Represents a hand-written binary encoding of one kind of object.
+ *
+ * @author Nguyen Truong Tho
+ * @param <T> The type of the encoded objects.
+ */
+public interface Codec<T> {
+
+    /**
+     * Writes an object.
+     *
+     * @param out The output to write to.
+     * @param obj The object to write.
+     * @throws IOException if there is an error during writing.
+     */
+    void write(DataOutput out, T obj) throws IOException;
+
+    /**
+     * Reads an object.
+     *
+     * @param in The input to read from.
+     * @return The object read.
+     * @throws IOException if there is an error during reading.
+     */
+    T read(DataInput in) throws IOException;
+
+    /**
+     * Gets the key that identifies an object in a snapshot file.
+     *
+     * @param obj The object.
+     * @return The key of the object.
+     */
+    String getKey(T obj);
+
+    /**
+     * Writes a length-prefixed UTF-8 string. A null string is written as
+     * length -1.
+     *
+     * @param out The output to write to.
+     * @param str The string to write.
+     * @throws IOException if there is an error during writing.
+     */
+    static void writeString(DataOutput out, String str) throws IOException {
+        if (str == null) {
+            out.writeInt(-1);
+        } else {
+            byte[] data = str.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(data.length);
+            out.write(data);
+        }
+    }
+
+    /**
+     * Reads a string written by writeString.
+     *
+     * @param in The input to read from.
+     * @return The string read.
+     * @throws IOException if there is an error during reading.
+     */
+    static String readString(DataInput in) throws IOException {
+        return readString(in, in.readInt());
+    }
+
+    /**
+     * Reads a string written by writeString whose length has already been
+     * read.
+     *
+     * @param in The input to read from.
+     * @param length The length read in front of the string.
+     * @return The string read.
+     * @throws IOException if there is an error during reading.
+     */
+    static String readString(DataInput in, int length) throws IOException {
+        if (length < 0) {
+            return null;
+        }
+        byte[] data = new byte[length];
+        in.readFully(data);
+        return new String(data, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes a date as its epoch day. A null date is written as
+     * Long.MIN_VALUE.
+     *
+     * @param out The output to write to.
+     * @param date The date to write.
+     * @throws IOException if there is an error during writing.
+     */
+    static void writeDate(DataOutput out, LocalDate date) throws IOException {
+        out.writeLong(date == null ? Long.MIN_VALUE : date.toEpochDay());
+    }
+
+    /**
+     * Reads a date written by writeDate.
+     *
+     * @param in The input to read from.
+     * @return The date read.
+     * @throws IOException if there is an error during reading.
+     */
+    static LocalDate readDate(DataInput in) throws IOException {
+        long day = in.readLong();
+        return day == Long.MIN_VALUE ? null : LocalDate.ofEpochDay(day);
+    }
+
+    /**
+     * Reads a date written by older versions as epoch milliseconds. A null
+     * date was written as Long.MIN_VALUE.
+     *
+     * @param in The input to read from.
+     * @return The date read.
+     * @throws IOException if there is an error during reading.
+     */
+    static LocalDate readEpochMilliDate(DataInput in) throws IOException {
+        long time = in.readLong();
+        return time == Long.MIN_VALUE ? null : Dates.fromEpochMilli(time);
+    }
+}
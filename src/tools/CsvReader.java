@@ -0,0 +1,92 @@
+package tools;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the rows of a CSV file one at a time. Fields are separated by commas
+ * and may be enclosed in double quotes, in which case they can hold commas
+ * and doubled quotes. Blank lines are skipped.
+ *
+ * @author Nguyen Truong Tho
+ */
+public class CsvReader implements Closeable {
+
+    private final BufferedReader reader;
+    private int lineNumber = 0;
+
+    /**
+     * Initializes a new instance of the CsvReader class.
+     *
+     * @param fileName The name of the CSV file.
+     * @throws IOException if the file cannot be opened.
+     */
+    public CsvReader(String fileName) throws IOException {
+        reader = new BufferedReader(new InputStreamReader(new FileInputStream(fileName), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Gets the number of the line the last row was read from.
+     *
+     * @return The line number, starting from 1.
+     */
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * Reads the next row.
+     *
+     * @return The trimmed fields of the row, or null at the end of the file.
+     * @throws IOException if there is an error during reading.
+     */
+    public List<String> readRow() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            lineNumber++;
+            if (line == null) {
+                return null;
+            }
+        } while (line.trim().isEmpty());
+        if (lineNumber == 1 && line.startsWith("\uFEFF")) {
+            line = line.substring(1);
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean isQuoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (isQuoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    isQuoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                isQuoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
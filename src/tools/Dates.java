@@ -0,0 +1,72 @@
+package tools;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+
+/**
+ * Provides the date format of the system, dd/MM/yyyy, for LocalDate values.
+ * The formatter is immutable and shared by every thread. Dates are read
+ * straight from their digits once Validator has checked them. Dates saved by
+ * older versions as java.util.Date values, at midnight in the time zone of
+ * the system, are converted from and to LocalDate here.
+ *
+ * @author Nguyen Truong Tho
+ */
+public class Dates {
+
+    /**
+     * The format of dates shown to and entered by the users.
+     */
+    public static final DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    /**
+     * Parses a date in dd/mm/yyyy format. The separators may also be '-',
+     * '.' or ' '.
+     *
+     * @param date The string to parse.
+     * @return The date, or null if the string is not a valid date.
+     */
+    public static LocalDate parse(String date) {
+        if (!Validator.isDate(date)) {
+            return null;
+        }
+        int day = (date.charAt(0) - '0') * 10 + date.charAt(1) - '0';
+        int month = (date.charAt(3) - '0') * 10 + date.charAt(4) - '0';
+        int year = ((date.charAt(6) - '0') * 10 + date.charAt(7) - '0') * 100 + (date.charAt(8) - '0') * 10 + date.charAt(9) - '0';
+        return LocalDate.of(year, month, day);
+    }
+
+    /**
+     * Formats a date in dd/MM/yyyy format.
+     *
+     * @param date The date.
+     * @return The formatted date, or an empty string if there is no date.
+     */
+    public static String format(LocalDate date) {
+        return date == null ? "" : FORMAT.format(date);
+    }
+
+    /**
+     * Converts a date saved by older versions as epoch milliseconds.
+     *
+     * @param millis The epoch milliseconds.
+     * @return The date in the time zone of the system.
+     */
+    public static LocalDate fromEpochMilli(long millis) {
+        return Instant.ofEpochMilli(millis).atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+
+    /**
+     * Converts a date to the java.util.Date value older versions read: its
+     * midnight in the time zone of the system.
+     *
+     * @param date The date.
+     * @return The java.util.Date value, or null if there is no date.
+     */
+    public static Date toDate(LocalDate date) {
+        return date == null ? null : Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+}
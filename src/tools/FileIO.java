@@ -1,14 +1,29 @@
 package tools;
 
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
 
 /**
  * This class provides methods for saving and loading data from a file.
@@ -17,62 +32,240 @@ import java.util.List;
  */
 public class FileIO {
 
+    private static final int MAGIC = 0x41505244;
+    private static final short VERSION = 3;
+    private static final int SERIALIZATION_MAGIC = 0xACED;
+    private static final int HEADER_SIZE = 4 + 2 + 4;
+
     /**
-     * This method saves data to a file.
+     * This method saves data to a file. The records are followed by an index
+     * of their positions by key, the position of that index and a checksum of
+     * everything before it. The data is written to a temporary file in the
+     * same directory, forced to disk and then renamed over the old file, so a
+     * failed save leaves the old file as it was.
      *
+     * @param <T> The type of the objects.
      * @param list The list of objects to save.
      * @param fileName The name of the file.
+     * @param codec The codec that writes the objects.
      * @return True if the data is saved successfully, false otherwise.
      */
-    public static boolean saveData(List list, String fileName) {
+    public static <T> boolean saveData(List<T> list, String fileName, Codec<T> codec) {
         boolean check = false;
         if (!list.isEmpty()) {
+            Path target = Paths.get(fileName).toAbsolutePath();
+            Path temp = target.resolveSibling(target.getFileName() + ".tmp");
             try {
-                FileOutputStream f = new FileOutputStream(fileName);
-                ObjectOutputStream fo = new ObjectOutputStream(f);
-                for (Object obj : list) {
-                    fo.writeObject(obj);
+                try (FileChannel fc = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                    CRC32 crc = new CRC32();
+                    DataOutputStream out = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(Channels.newOutputStream(fc), 1 << 16), crc));
+                    out.writeInt(MAGIC);
+                    out.writeShort(VERSION);
+                    out.writeInt(list.size());
+                    int[] offsets = new int[list.size()];
+                    for (int i = 0; i < list.size(); i++) {
+                        offsets[i] = out.size();
+                        codec.write(out, list.get(i));
+                    }
+                    long indexOffset = out.size();
+                    for (int i = 0; i < list.size(); i++) {
+                        Codec.writeString(out, codec.getKey(list.get(i)));
+                        out.writeInt(offsets[i]);
+                    }
+                    out.writeLong(indexOffset);
+                    out.flush();
+                    new DataOutputStream(Channels.newOutputStream(fc)).writeLong(crc.getValue());
+                    fc.force(true);
+                }
+                try {
+                    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException ex) {
+                    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
                 }
-                fo.writeObject(new EndOfFile());
-                f.close();
-                fo.close();
                 check = true;
             } catch (IOException ex) {
                 System.out.println(ex);
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException e) {
+                    System.out.println(e);
+                }
             }
         }
         return check;
     }
 
     /**
-     * This method loads data from a file.
+     * This method loads data from a file. Files written with Java
+     * serialization or an older format version are still read. A file whose
+     * checksum does not match is reported and moved aside.
      *
+     * @param <T> The type of the objects.
      * @param fileName The name of the file.
+     * @param codec The codec that reads the objects.
      * @return A list of objects loaded from the file.
      */
-    public static List loadData(String fileName) {
-        List list = new ArrayList();
-        try {
-            File f = new File(fileName);
-            if (f.exists()) {
-                FileInputStream fi = new FileInputStream(f);
-                ObjectInputStream oj = new ObjectInputStream(fi);
-                Object obj;
-                while (!((obj = oj.readObject()) instanceof EndOfFile)) {
-                    list.add(obj);
+    public static <T> List<T> loadData(String fileName, Codec<T> codec) {
+        List<T> list = new ArrayList<>();
+        File f = new File(fileName);
+        if (f.exists()) {
+            try {
+                byte[] data = Files.readAllBytes(f.toPath());
+                DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+                if (data.length >= 2 && ((data[0] & 0xFF) << 8 | (data[1] & 0xFF)) == SERIALIZATION_MAGIC) {
+                    return loadLegacyData(in);
+                }
+                short version = checkHeader(ByteBuffer.wrap(data), fileName);
+                if (version >= 3 && !isChecksumValid(ByteBuffer.wrap(data))) {
+                    moveCorrupted(f);
+                    return list;
+                }
+                in.skipBytes(4 + 2);
+                int size = in.readInt();
+                for (int i = 0; i < size; i++) {
+                    list.add(codec.read(in));
+                }
+            } catch (IOException | ClassNotFoundException ex) {
+                System.out.println(ex);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * This method opens a data file for reading records by key. The file is
+     * read into memory and only its index is decoded; files in an older format
+     * are loaded in full instead. A file whose checksum does not match is
+     * reported and moved aside. The file is not mapped, because saveData
+     * replaces it while the snapshot is still in use, and a mapped file cannot
+     * be replaced on Windows.
+     *
+     * @param <T> The type of the objects.
+     * @param fileName The name of the file.
+     * @param codec The codec that reads the objects.
+     * @return The snapshot of the records in the file.
+     */
+    public static <T> Snapshot<T> openSnapshot(String fileName, Codec<T> codec) {
+        File f = new File(fileName);
+        if (f.exists()) {
+            boolean isCorrupted = false;
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(f.toPath()));
+                if (buffer.limit() >= HEADER_SIZE && buffer.getInt(0) == MAGIC && checkHeader(buffer, fileName) >= 2) {
+                    int end = buffer.limit();
+                    if (buffer.getShort(4) >= 3) {
+                        isCorrupted = !isChecksumValid(buffer);
+                        end -= 8;
+                    }
+                    if (!isCorrupted) {
+                        int size = buffer.getInt(6);
+                        ByteBuffer index = buffer.duplicate();
+                        index.position((int) buffer.getLong(end - 8));
+                        Map<String, Integer> offsets = new HashMap<>(size * 4 / 3 + 1);
+                        for (int i = 0; i < size; i++) {
+                            byte[] key = new byte[index.getInt()];
+                            index.get(key);
+                            offsets.put(new String(key, StandardCharsets.UTF_8), index.getInt());
+                        }
+                        return new Snapshot<>(buffer, offsets, codec);
+                    }
                 }
-                oj.close();
-                fi.close();
+            } catch (IOException | RuntimeException ex) {
+                System.out.println(ex);
+                return Snapshot.empty();
             }
-        } catch (IOException | ClassNotFoundException ex) {
+            if (isCorrupted) {
+                moveCorrupted(f);
+                return Snapshot.empty();
+            }
+            try {
+                return Snapshot.of(loadData(fileName, codec), codec);
+            } catch (IOException ex) {
+                System.out.println(ex);
+            }
+        }
+        return Snapshot.empty();
+    }
+
+    /**
+     * Checks the header of a data file.
+     *
+     * @param buffer The content of the file.
+     * @param fileName The name of the file.
+     * @return The format version of the file.
+     * @throws IOException if the file is not a data file of a known version.
+     */
+    private static short checkHeader(ByteBuffer buffer, String fileName) throws IOException {
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException(fileName + " is not a data file");
+        }
+        short version = buffer.getShort(4);
+        if (version < 1 || version > VERSION) {
+            throw new IOException(fileName + " has unsupported version " + version);
+        }
+        return version;
+    }
+
+    /**
+     * Checks the checksum at the end of a data file against its content.
+     *
+     * @param buffer The content of the file.
+     * @return True if the checksum matches, false otherwise.
+     */
+    private static boolean isChecksumValid(ByteBuffer buffer) {
+        int end = buffer.limit() - 8;
+        if (end < HEADER_SIZE) {
+            return false;
+        }
+        CRC32 crc = new CRC32();
+        byte[] chunk = new byte[1 << 16];
+        ByteBuffer content = buffer.duplicate();
+        content.position(0);
+        while (content.position() < end) {
+            int n = Math.min(chunk.length, end - content.position());
+            content.get(chunk, 0, n);
+            crc.update(chunk, 0, n);
+        }
+        return content.getLong() == crc.getValue();
+    }
+
+    /**
+     * Moves a corrupted data file aside so that the next save does not
+     * overwrite it.
+     *
+     * @param f The corrupted file.
+     */
+    private static void moveCorrupted(File f) {
+        Path corrupted = f.toPath().toAbsolutePath().resolveSibling(f.getName() + ".corrupt");
+        System.out.println(f.getName() + " is corrupted and has been moved to " + corrupted.getFileName() + "!");
+        try {
+            Files.move(f.toPath(), corrupted, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException ex) {
             System.out.println(ex);
         }
+    }
+
+    /**
+     * This method loads data written with Java serialization.
+     *
+     * @param in The stream positioned at the start of the file.
+     * @return A list of objects loaded from the stream.
+     * @throws IOException if there is an error during reading.
+     * @throws ClassNotFoundException if a class of the stream is unknown.
+     */
+    private static List loadLegacyData(DataInputStream in) throws IOException, ClassNotFoundException {
+        List list = new ArrayList();
+        ObjectInputStream oj = new ObjectInputStream(in);
+        Object obj;
+        while (!((obj = oj.readObject()) instanceof EndOfFile)) {
+            list.add(obj);
+        }
         return list;
     }
 }
 
 /**
- * This class is used to indicate the end of a file when saving data.
+ * This class is used to indicate the end of a file saved by older versions.
  */
 class EndOfFile implements Serializable {
 
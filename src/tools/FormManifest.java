@@ -0,0 +1,177 @@
+package tools;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class keeps a hash of the content of each written form, so that only
+ * the forms whose content has changed are written again. New hashes are
+ * appended to the manifest file; a later hash of a form replaces the earlier
+ * one when the file is loaded.
+ *
+ * @author Nguyen Truong Tho
+ */
+public class FormManifest {
+
+    private static final int MAGIC = 0x4150524D;
+    private static final short VERSION = 1;
+    private final String fileName;
+    private final Map<String, Long> hashes = new ConcurrentHashMap<>();
+    private final List<String> pending = new ArrayList<>();
+
+    /**
+     * Initializes a new instance of the FormManifest class and loads the
+     * hashes in the manifest file.
+     *
+     * @param fileName The name of the manifest file.
+     */
+    public FormManifest(String fileName) {
+        this.fileName = fileName;
+        load();
+    }
+
+    /**
+     * Computes the hash of the content of a form.
+     *
+     * @param content The content of the form.
+     * @return The 64-bit FNV-1a hash of the content.
+     */
+    public static long hash(CharSequence content) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < content.length(); i++) {
+            h = (h ^ content.charAt(i)) * 0x100000001b3L;
+        }
+        return h;
+    }
+
+    /**
+     * Checks whether a form has been written with a content.
+     *
+     * @param formName The name of the form.
+     * @param hash The hash of the content.
+     * @return true if the last written content of the form has the hash;
+     * otherwise, false.
+     */
+    public boolean isCurrent(String formName, long hash) {
+        Long h = hashes.get(formName);
+        return h != null && h == hash;
+    }
+
+    /**
+     * Records the hash of a written form. The hash is kept in memory until the
+     * next flush.
+     *
+     * @param formName The name of the form.
+     * @param hash The hash of the written content.
+     */
+    public void put(String formName, long hash) {
+        hashes.put(formName, hash);
+        synchronized (pending) {
+            pending.add(formName);
+        }
+    }
+
+    /**
+     * Appends the hashes recorded since the last flush to the manifest file.
+     */
+    public void flush() {
+        List<String> names;
+        synchronized (pending) {
+            names = new ArrayList<>(pending);
+            pending.clear();
+        }
+        if (names.isEmpty()) {
+            return;
+        }
+        boolean isNew = new File(fileName).length() == 0;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fileName, true)))) {
+            if (isNew) {
+                out.writeInt(MAGIC);
+                out.writeShort(VERSION);
+            }
+            for (String name : names) {
+                out.writeUTF(name);
+                out.writeLong(hashes.get(name));
+            }
+        } catch (IOException ex) {
+            System.out.println(ex);
+        }
+    }
+
+    /**
+     * Rewrites the manifest file with one hash per form, dropping the hashes
+     * that have been replaced.
+     */
+    public void compact() {
+        synchronized (pending) {
+            pending.clear();
+        }
+        Path target = Paths.get(fileName).toAbsolutePath();
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp.toFile())))) {
+                out.writeInt(MAGIC);
+                out.writeShort(VERSION);
+                for (Map.Entry<String, Long> entry : hashes.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeLong(entry.getValue());
+                }
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException ex) {
+            System.out.println(ex);
+        }
+    }
+
+    /**
+     * Loads the hashes in the manifest file. An entry cut off at the end of
+     * the file is dropped so that later appends start on an entry boundary.
+     */
+    private void load() {
+        File f = new File(fileName);
+        if (f.length() > 0) {
+            try {
+                byte[] data = Files.readAllBytes(f.toPath());
+                ByteArrayInputStream bin = new ByteArrayInputStream(data);
+                DataInputStream in = new DataInputStream(bin);
+                if (in.readInt() != MAGIC || in.readShort() != VERSION) {
+                    throw new IOException(fileName + " is not a form manifest");
+                }
+                int end = data.length - bin.available();
+                try {
+                    while (bin.available() > 0) {
+                        String name = in.readUTF();
+                        hashes.put(name, in.readLong());
+                        end = data.length - bin.available();
+                    }
+                } catch (EOFException ex) {
+                    try (RandomAccessFile raf = new RandomAccessFile(f, "rw")) {
+                        raf.setLength(end);
+                    }
+                }
+            } catch (IOException ex) {
+                System.out.println(ex);
+            }
+        }
+    }
+}
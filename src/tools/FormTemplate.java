@@ -0,0 +1,261 @@
+package tools;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import model.AboardProgram;
+import model.Registration;
+import model.Student;
+
+/**
+ * Represents the layout of a registration form, compiled once into literal
+ * text and field slots. In the template, ${name} is replaced by a field, and
+ * the text between ${pad:n} and ${end} is filled with spaces up to n
+ * characters. Each line of the template ends with the line separator of the
+ * system.
+ *
+ * @author Nguyen Truong Tho
+ */
+public class FormTemplate {
+
+    /**
+     * The template of the registration form used when no template file is
+     * found.
+     */
+    public static final String DEFAULT = "\t\tAboard Program Registration Form\n"
+            + "\n"
+            + "Information Student:\n"
+            + "\n"
+            + "${pad:25}Student's id: ${studentId}${end}Student name: ${studentName}\n"
+            + "\n"
+            + "${pad:25}Major: ${major}${end}Email: ${email}   Phone: ${phone}   Passport: ${passport}\n"
+            + "\n"
+            + "${pad:25}Address: ${address}${end}Email of the parents: ${parentMail}   Phone of the parents: ${parentPhone}\n"
+            + "\n"
+            + "Information of the aboard program:\n"
+            + "\n"
+            + "${pad:25}Program's id: ${programId}${end}Program's name: ${programName}\n"
+            + "\n"
+            + "${pad:25}Time: ${time}${end}Days: ${days}   Location: ${location}   Cost: ${cost}$\n"
+            + "\n"
+            + "Information of the registration:\n"
+            + "\n"
+            + "Registration date: ${registrationDate}\n";
+
+    private final String[] literals;
+    private final Field[] fields;
+    private final int[] pads;
+
+    /**
+     * Holds the fields that can be placed in a form.
+     */
+    private enum Field {
+        STUDENT_ID("studentId"), STUDENT_NAME("studentName"), MAJOR("major"), EMAIL("email"),
+        PHONE("phone"), PASSPORT("passport"), ADDRESS("address"), PARENT_MAIL("parentMail"),
+        PARENT_PHONE("parentPhone"), PROGRAM_ID("programId"), PROGRAM_NAME("programName"), TIME("time"),
+        DAYS("days"), LOCATION("location"), COST("cost"), REGISTRATION_DATE("registrationDate");
+
+        final String name;
+
+        Field(String name) {
+            this.name = name;
+        }
+    }
+
+    /**
+     * Compiles a template.
+     *
+     * @param template The text of the template.
+     * @throws IllegalArgumentException if the template uses an unknown field
+     * or a ${pad:n} without its ${end}.
+     */
+    public FormTemplate(String template) {
+        List<String> literalList = new ArrayList<>();
+        List<Field> fieldList = new ArrayList<>();
+        List<Integer> padList = new ArrayList<>();
+        String text = template.replace("\r\n", "\n").replace("\n", System.lineSeparator());
+        StringBuilder literal = new StringBuilder();
+        boolean isPadding = false;
+        int i = 0;
+        while (i < text.length()) {
+            int start = text.indexOf("${", i);
+            if (start < 0) {
+                literal.append(text, i, text.length());
+                break;
+            }
+            int end = text.indexOf('}', start);
+            if (end < 0) {
+                throw new IllegalArgumentException("Missing } after position " + start + " of the form template");
+            }
+            literal.append(text, i, start);
+            String name = text.substring(start + 2, end);
+            literalList.add(literal.toString());
+            literal.setLength(0);
+            if (name.startsWith("pad:")) {
+                if (isPadding) {
+                    throw new IllegalArgumentException("${" + name + "} inside another ${pad} of the form template");
+                }
+                fieldList.add(null);
+                padList.add(Integer.parseInt(name.substring(4).trim()));
+                isPadding = true;
+            } else if (name.equals("end")) {
+                if (!isPadding) {
+                    throw new IllegalArgumentException("${end} without ${pad} in the form template");
+                }
+                fieldList.add(null);
+                padList.add(-1);
+                isPadding = false;
+            } else {
+                fieldList.add(findField(name));
+                padList.add(0);
+            }
+            i = end + 1;
+        }
+        if (isPadding) {
+            throw new IllegalArgumentException("${pad} without ${end} in the form template");
+        }
+        literalList.add(literal.toString());
+        literals = literalList.toArray(new String[0]);
+        fields = fieldList.toArray(new Field[0]);
+        pads = new int[padList.size()];
+        for (int j = 0; j < pads.length; j++) {
+            pads[j] = padList.get(j);
+        }
+    }
+
+    /**
+     * Loads and compiles the template in a file. The default template is used
+     * if the file does not exist or is not a valid template.
+     *
+     * @param fileName The name of the template file.
+     * @return The compiled template.
+     */
+    public static FormTemplate load(String fileName) {
+        if (Files.exists(Paths.get(fileName))) {
+            try {
+                return new FormTemplate(new String(Files.readAllBytes(Paths.get(fileName)), StandardCharsets.UTF_8));
+            } catch (IOException | IllegalArgumentException e) {
+                System.out.println("Error: " + fileName + " " + e.getMessage() + ", the default form is used.");
+            }
+        }
+        return new FormTemplate(DEFAULT);
+    }
+
+    /**
+     * Renders the form of a registration.
+     *
+     * @param sb The buffer the form is appended to.
+     * @param r The registration.
+     * @param student The registered student.
+     * @param program The registered program.
+     */
+    public void render(StringBuilder sb, Registration r, Student student, AboardProgram program) {
+        int padStart = 0;
+        int padWidth = 0;
+        for (int i = 0; i < fields.length; i++) {
+            sb.append(literals[i]);
+            if (fields[i] != null) {
+                appendField(sb, fields[i], r, student, program);
+            } else if (pads[i] > 0) {
+                padStart = sb.length();
+                padWidth = pads[i];
+            } else {
+                for (int n = sb.length() - padStart; n < padWidth; n++) {
+                    sb.append(' ');
+                }
+            }
+        }
+        sb.append(literals[fields.length]);
+    }
+
+    private static Field findField(String name) {
+        for (Field f : Field.values()) {
+            if (f.name.equals(name)) {
+                return f;
+            }
+        }
+        throw new IllegalArgumentException("Unknown field ${" + name + "} in the form template");
+    }
+
+    private static void appendField(StringBuilder sb, Field field, Registration r, Student student, AboardProgram program) {
+        switch (field) {
+            case STUDENT_ID:
+                sb.append(student.getId());
+                break;
+            case STUDENT_NAME:
+                sb.append(student.getName());
+                break;
+            case MAJOR:
+                sb.append(student.getMajor());
+                break;
+            case EMAIL:
+                sb.append(student.getEmail());
+                break;
+            case PHONE:
+                sb.append(student.getPhone());
+                break;
+            case PASSPORT:
+                sb.append(student.getPassport());
+                break;
+            case ADDRESS:
+                sb.append(student.getAddress());
+                break;
+            case PARENT_MAIL:
+                sb.append(r.getParentMail());
+                break;
+            case PARENT_PHONE:
+                sb.append(r.getParentPhone());
+                break;
+            case PROGRAM_ID:
+                sb.append(program.getId());
+                break;
+            case PROGRAM_NAME:
+                sb.append(program.getName());
+                break;
+            case TIME:
+                sb.append(program.getTime());
+                break;
+            case DAYS:
+                sb.append(program.getDays());
+                break;
+            case LOCATION:
+                sb.append(r.getLocation());
+                break;
+            case COST:
+                appendCost(sb, program.getCost());
+                break;
+            case REGISTRATION_DATE:
+                appendDate(sb, r.getRegistrationDate());
+                break;
+        }
+    }
+
+    /**
+     * Appends a cost rounded to a whole number, as %.0f does.
+     */
+    private static void appendCost(StringBuilder sb, double cost) {
+        if (cost >= 0 && cost < 1L << 52) {
+            sb.append(Math.round(cost));
+        } else {
+            sb.append(String.format("%.0f", cost));
+        }
+    }
+
+    /**
+     * Appends a date in dd/MM/yyyy format, or nothing if there is no date.
+     */
+    private static void appendDate(StringBuilder sb, LocalDate date) {
+        if (date == null) {
+            return;
+        }
+        int day = date.getDayOfMonth();
+        int month = date.getMonthValue();
+        sb.append(day < 10 ? "0" : "").append(day).append('/');
+        sb.append(month < 10 ? "0" : "").append(month).append('/');
+        sb.append(date.getYear());
+    }
+}
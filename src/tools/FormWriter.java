@@ -0,0 +1,105 @@
+package tools;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Writes rendered forms to files in the background. The content is encoded on
+ * the calling thread, so the caller can reuse its buffer as soon as write
+ * returns, and the file is written on the executor. The number of writes in
+ * progress is bounded; write waits while the limit is reached.
+ *
+ * @author Nguyen Truong Tho
+ */
+public class FormWriter {
+
+    private final Executor executor;
+    private final Semaphore pending;
+    private final Charset charset = Charset.defaultCharset();
+
+    /**
+     * Initializes a new instance of the FormWriter class.
+     *
+     * @param executor The executor that writes the files.
+     * @param maxPending The largest number of writes in progress.
+     */
+    public FormWriter(Executor executor, int maxPending) {
+        this.executor = executor;
+        this.pending = new Semaphore(maxPending);
+    }
+
+    /**
+     * Creates a FormWriter that writes each file on a virtual thread when the
+     * Java runtime has them, and on a pool of daemon threads otherwise.
+     *
+     * @param maxPending The largest number of writes in progress.
+     * @return The FormWriter.
+     */
+    public static FormWriter create(int maxPending) {
+        ExecutorService executor;
+        try {
+            executor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            executor = Executors.newFixedThreadPool(Math.min(maxPending, Runtime.getRuntime().availableProcessors() * 2), r -> {
+                Thread t = new Thread(r, "form-writer");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        return new FormWriter(executor, maxPending);
+    }
+
+    /**
+     * Writes content to a file, replacing the file if it exists. The folder
+     * of the file is created if it does not exist.
+     *
+     * @param fileName The name of the file.
+     * @param content The content to write.
+     * @return The future that completes when the file has been written, or
+     * completes exceptionally with the IOException of a failed write.
+     */
+    public CompletableFuture<Void> write(String fileName, CharSequence content) {
+        ByteBuffer encoded = charset.encode(CharBuffer.wrap(content));
+        byte[] bytes = new byte[encoded.remaining()];
+        encoded.get(bytes);
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        pending.acquireUninterruptibly();
+        try {
+            executor.execute(() -> {
+                try {
+                    Path file = Paths.get(fileName);
+                    try {
+                        Files.write(file, bytes);
+                    } catch (NoSuchFileException e) {
+                        if (file.getParent() == null) {
+                            throw e;
+                        }
+                        Files.createDirectories(file.getParent());
+                        Files.write(file, bytes);
+                    }
+                    future.complete(null);
+                } catch (IOException | RuntimeException e) {
+                    future.completeExceptionally(e);
+                } finally {
+                    pending.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.release();
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+}
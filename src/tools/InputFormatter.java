@@ -1,12 +1,9 @@
 package tools;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
 import java.util.Scanner;
-import java.util.regex.Pattern;
 
 /**
  * Provides methods for validating user input.
@@ -16,9 +13,6 @@ import java.util.regex.Pattern;
 public class InputFormatter {
 
     private static final Scanner input = new Scanner(System.in);
-    private static String dateFormat = "^(0[1-9]|[12][0-9]|3[01])[- /.](0[1-9]|1[012])[- /.](19|20)[0-9]{2,2}$";
-    private static String mailRegex = "^([0-9a-zA-Z.]+)([@])([0-9a-zA-Z.]+)$";
-    private static String phoneRegex = "^0[1-9]{1,1}[0-9]{8,8}$";
 
     /**
      * Method for inputting an integer number within a specified range.
@@ -197,8 +191,7 @@ public class InputFormatter {
             try {
                 System.out.print(msg);
                 str = input.nextLine();
-                Pattern pt = Pattern.compile(regex);
-                if (!pt.matcher(str).find()) {
+                if (!Validator.pattern(regex).matcher(str).find()) {
                     throw new Exception();
                 } else {
                     flag = false;
@@ -335,8 +328,7 @@ public class InputFormatter {
             try {
                 System.out.print(msg);
                 phone = input.nextLine();
-                Pattern pt = Pattern.compile(phoneRegex);
-                if (!pt.matcher(phone).find()) {
+                if (!Validator.isPhone(phone)) {
                     throw new Exception();
                 } else {
                     flag = false;
@@ -362,8 +354,7 @@ public class InputFormatter {
             try {
                 System.out.print(msg);
                 email = input.nextLine();
-                Pattern pt = Pattern.compile(mailRegex);
-                if (!email.endsWith(domain) || !pt.matcher(email).find()) {
+                if (!Validator.isMail(email, domain)) {
                     throw new Exception("Email must only include letters, numbers and end with domain " + domain);
                 } else {
                     flag = false;
@@ -404,18 +395,15 @@ public class InputFormatter {
      *
      * @param msg The message to display for input.
      * @return The user's input for the date.
-     * @throws java.text.ParseException
      */
-    public static Date getDate(String msg) throws ParseException {
+    public static LocalDate getDate(String msg) {
         boolean flag = true;
-        SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy");
         String date = null;
         while (flag) {
             try {
                 System.out.print(msg);
                 date = input.nextLine();
-                Pattern pt = Pattern.compile(dateFormat);
-                if (!pt.matcher(date).find() || !isValidDate(date)) {
+                if (!Validator.isDate(date)) {
                     throw new Exception("the date must be in dd/mm/yyyy format!");
                 } else {
 
@@ -425,33 +413,29 @@ public class InputFormatter {
                 System.out.println("Wrong date format, " + ex.getMessage());
             }
         }
-        return sdf.parse(date);
+        return Dates.parse(date);
     }
 
     /**
-     * Retrieves a Date object after validating and parsing the user input.
+     * Retrieves a date that is not before another date, after validating and
+     * parsing the user input.
      *
      * @param msg The message to prompt the user for a date.
      * @param datebefore The date to compare the user input with.
-     * @return The Date object representing the user's chosen date.
-     * @throws ParseException If the user input cannot be parsed as a valid
-     * date.
+     * @return The date chosen by the user.
      */
-    public static Date getDateAfter(String msg, Date datebefore) throws ParseException {
+    public static LocalDate getDateAfter(String msg, LocalDate datebefore) {
         String date = null;
-        SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy");
         boolean flag = true;
         while (flag) {
             try {
                 System.out.print(msg);
                 date = input.nextLine();
-                Pattern pt = Pattern.compile(dateFormat);
-
-                if (!pt.matcher(date).find() || !isValidDate(date)) {
+                if (!Validator.isDate(date)) {
                     throw new Exception("the date must be in dd/mm/yyyy format!");
                 } else {
-                    if (sdf.parse(date).compareTo(datebefore) < 0) {
-                        throw new Exception("your input date must be after " + sdf.format(datebefore));
+                    if (Dates.parse(date).isBefore(datebefore)) {
+                        throw new Exception("your input date must be after " + Dates.format(datebefore));
                     }
                     flag = false;
                 }
@@ -459,7 +443,55 @@ public class InputFormatter {
                 System.out.println("Wrong date format, " + ex.getMessage());
             }
         }
-        return sdf.parse(date);
+        return Dates.parse(date);
+    }
+
+    /**
+     * Method for inputting a date that may be left empty.
+     *
+     * @param msg The message to display for input.
+     * @return The user's input for the date, or null if it was left empty.
+     */
+    public static LocalDate getOptionalDate(String msg) {
+        while (true) {
+            System.out.print(msg);
+            String date = input.nextLine();
+            if (date.isEmpty()) {
+                return null;
+            }
+            if (Validator.isDate(date)) {
+                return Dates.parse(date);
+            }
+            System.out.println("Wrong date format, the date must be in dd/mm/yyyy format!");
+        }
+    }
+
+    /**
+     * Method for inputting a double number that may be left empty.
+     *
+     * @param msg The message to display when prompting for input.
+     * @param exmsg The exception message to display when the input is invalid.
+     * @param min The minimum value of the number.
+     * @param max The maximum value of the number.
+     * @return The number entered by the user, or null if it was left empty.
+     */
+    public static Double getOptionalDouble(String msg, String exmsg, double min, double max) {
+        while (true) {
+            System.out.print(msg);
+            String str = input.nextLine();
+            if (str.isEmpty()) {
+                return null;
+            }
+            try {
+                double n = Double.parseDouble(str);
+                if (n >= min && n <= max) {
+                    return n;
+                }
+                System.out.println("Wrong format! " + exmsg);
+            } catch (NumberFormatException ex) {
+                System.out.println("Wrong format! ");
+            }
+        }
     }
 
     /**
@@ -0,0 +1,220 @@
+package tools;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * This class provides an append-only journal of changed objects. Each change
+ * is appended as a small checksummed record so that it is durable without
+ * rewriting the whole data file.
+ *
+ * @author Nguyen Truong Tho
+ * @param <T> The type of the journaled objects.
+ */
+public class Journal<T> {
+
+    private static final int MAGIC = 0x4150524A;
+    private static final short VERSION = 1;
+    private static final byte PUT = 1;
+    private final String fileName;
+    private final Codec<T> codec;
+    private int size;
+
+    /**
+     * Initializes a new instance of the Journal class.
+     *
+     * @param fileName The name of the journal file.
+     * @param codec The codec that writes and reads the objects.
+     */
+    public Journal(String fileName, Codec<T> codec) {
+        this.fileName = fileName;
+        this.codec = codec;
+    }
+
+    /**
+     * Gets the number of records in the journal.
+     *
+     * @return The number of records.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Appends a changed object to the journal and forces it to disk.
+     *
+     * @param obj The changed object.
+     * @throws IOException if there is an error during writing.
+     */
+    public void append(T obj) throws IOException {
+        List<T> list = new ArrayList<>();
+        list.add(obj);
+        append(list);
+    }
+
+    /**
+     * Appends changed objects to the journal and forces them to disk.
+     *
+     * @param list The changed objects.
+     * @throws IOException if there is an error during writing.
+     */
+    public void append(List<T> list) throws IOException {
+        boolean isNew = new File(fileName).length() == 0;
+        try (FileOutputStream f = new FileOutputStream(fileName, true)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(f));
+            if (isNew) {
+                out.writeInt(MAGIC);
+                out.writeShort(VERSION);
+            }
+            for (T obj : list) {
+                byte[] data = toBytes(obj);
+                CRC32 crc = new CRC32();
+                crc.update(data);
+                out.writeByte(PUT);
+                out.writeInt(data.length);
+                out.write(data);
+                out.writeInt((int) crc.getValue());
+            }
+            out.flush();
+            f.getFD().sync();
+        }
+        size += list.size();
+    }
+
+    /**
+     * Reads back the objects of the journal in the order they were appended,
+     * starting with a segment closed by rotate that has not been dropped yet.
+     * A record that is cut off or damaged ends the replay of its segment and
+     * is removed from the file.
+     *
+     * @return The list of changed objects.
+     */
+    public List<T> replay() {
+        List<T> list = new ArrayList<>();
+        replay(new File(fileName + ".1"), list);
+        int rotated = list.size();
+        replay(new File(fileName), list);
+        size = list.size() - rotated;
+        return list;
+    }
+
+    /**
+     * Reads back the objects of one journal file.
+     *
+     * @param f The journal file.
+     * @param list The list to add the changed objects to.
+     */
+    private void replay(File f, List<T> list) {
+        if (f.length() > 0) {
+            try {
+                byte[] file = Files.readAllBytes(f.toPath());
+                ByteArrayInputStream bin = new ByteArrayInputStream(file);
+                DataInputStream in = new DataInputStream(bin);
+                int end = 0;
+                try {
+                    if (in.readInt() != MAGIC || in.readShort() != VERSION) {
+                        throw new IOException(f.getName() + " is not a journal");
+                    }
+                    end = file.length - bin.available();
+                    while (bin.available() > 0) {
+                        if (in.readByte() != PUT) {
+                            throw new EOFException();
+                        }
+                        int length = in.readInt();
+                        if (length < 0 || length > bin.available()) {
+                            throw new EOFException();
+                        }
+                        byte[] data = new byte[length];
+                        in.readFully(data);
+                        CRC32 crc = new CRC32();
+                        crc.update(data);
+                        if (in.readInt() != (int) crc.getValue()) {
+                            throw new EOFException();
+                        }
+                        list.add(codec.read(new DataInputStream(new ByteArrayInputStream(data))));
+                        end = file.length - bin.available();
+                    }
+                } catch (EOFException ex) {
+                    try (RandomAccessFile raf = new RandomAccessFile(f, "rw")) {
+                        raf.setLength(end);
+                    }
+                }
+            } catch (IOException ex) {
+                System.out.println(ex);
+            }
+        }
+    }
+
+    /**
+     * Closes the current journal file so that later records go to a new one.
+     * Records of the closed segment are still replayed until dropRotated is
+     * called, which lets a snapshot be written while changes keep coming in.
+     * A segment that was not dropped yet is kept and extended.
+     */
+    public void rotate() {
+        File current = new File(fileName);
+        if (current.length() > 0) {
+            try {
+                File rotated = new File(fileName + ".1");
+                if (rotated.length() > 0) {
+                    byte[] file = Files.readAllBytes(current.toPath());
+                    int header = file[0] == PUT ? 0 : 4 + 2;
+                    try (FileOutputStream f = new FileOutputStream(rotated, true)) {
+                        f.write(file, header, file.length - header);
+                        f.getFD().sync();
+                    }
+                    Files.delete(current.toPath());
+                } else {
+                    Files.move(current.toPath(), rotated.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                }
+            } catch (IOException ex) {
+                System.out.println(ex);
+            }
+        }
+        size = 0;
+    }
+
+    /**
+     * Removes the segment closed by rotate once its records are saved
+     * elsewhere.
+     */
+    public void dropRotated() {
+        try {
+            Files.deleteIfExists(new File(fileName + ".1").toPath());
+        } catch (IOException ex) {
+            System.out.println(ex);
+        }
+    }
+
+    /**
+     * Removes all records from the journal.
+     */
+    public void clear() {
+        try {
+            Files.deleteIfExists(new File(fileName).toPath());
+            Files.deleteIfExists(new File(fileName + ".1").toPath());
+        } catch (IOException ex) {
+            System.out.println(ex);
+        }
+        size = 0;
+    }
+
+    private byte[] toBytes(T obj) throws IOException {
+        ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        codec.write(new DataOutputStream(bout), obj);
+        return bout.toByteArray();
+    }
+}
@@ -0,0 +1,158 @@
+package tools;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * Holds records by their key in a ConcurrentHashMap, so that they can be read
+ * from several threads without locking. Records that are still only in the
+ * snapshot of the data file are decoded on first use. Records are added and
+ * changed through atomic operations, and the map itself is never handed out.
+ *
+ * @author Nguyen Truong Tho
+ * @param <T> The type of the records.
+ */
+public class RecordMap<T> {
+
+    private final ConcurrentHashMap<String, T> records = new ConcurrentHashMap<>();
+    private volatile Snapshot<T> snapshot;
+
+    /**
+     * Initializes a new instance of the RecordMap class.
+     *
+     * @param snapshot The records of the data file.
+     */
+    public RecordMap(Snapshot<T> snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Gets the record with a key, decoding it from the snapshot on first use.
+     *
+     * @param key The key of the record.
+     * @return The record, or null if it does not exist.
+     */
+    public T get(String key) {
+        T obj = records.get(key);
+        if (obj == null) {
+            Snapshot<T> s = snapshot;
+            if (s.contains(key)) {
+                obj = records.computeIfAbsent(key, s::get);
+            }
+        }
+        return obj;
+    }
+
+    /**
+     * Checks whether a record with a key exists.
+     *
+     * @param key The key of the record.
+     * @return true if the record exists; otherwise, false.
+     */
+    public boolean containsKey(String key) {
+        return records.containsKey(key) || snapshot.contains(key);
+    }
+
+    /**
+     * Checks whether there are no records.
+     *
+     * @return true if there are no records; otherwise, false.
+     */
+    public boolean isEmpty() {
+        return records.isEmpty() && snapshot.isEmpty();
+    }
+
+    /**
+     * Gets the number of records.
+     *
+     * @return The number of records.
+     */
+    public int size() {
+        loadAll();
+        return records.size();
+    }
+
+    /**
+     * Adds a record if there is no record with its key yet.
+     *
+     * @param key The key of the record.
+     * @param obj The record.
+     * @return true if the record has been added; false if the key is taken.
+     */
+    public boolean add(String key, T obj) {
+        if (snapshot.contains(key)) {
+            return false;
+        }
+        return records.putIfAbsent(key, obj) == null;
+    }
+
+    /**
+     * Puts a record, replacing the record with the same key.
+     *
+     * @param key The key of the record.
+     * @param obj The record.
+     * @return The replaced record, or null if there was none.
+     */
+    public T put(String key, T obj) {
+        T old = records.put(key, obj);
+        if (old == null) {
+            Snapshot<T> s = snapshot;
+            if (s.contains(key)) {
+                old = s.get(key);
+            }
+        }
+        return old;
+    }
+
+    /**
+     * Changes the record with a key. The change runs atomically with respect
+     * to other changes of the same record.
+     *
+     * @param key The key of the record.
+     * @param change The change, which returns the new record.
+     * @return The new record, or null if there is no record with the key.
+     */
+    public T update(String key, UnaryOperator<T> change) {
+        if (get(key) == null) {
+            return null;
+        }
+        return records.computeIfPresent(key, (k, obj) -> change.apply(obj));
+    }
+
+    /**
+     * Gets the keys of all records.
+     *
+     * @return The read-only set of keys.
+     */
+    public Set<String> keySet() {
+        loadAll();
+        return Collections.unmodifiableSet(records.keySet());
+    }
+
+    /**
+     * Gets a copy of all records.
+     *
+     * @return The read-only list of records.
+     */
+    public List<T> values() {
+        loadAll();
+        return Collections.unmodifiableList(new ArrayList<>(records.values()));
+    }
+
+    /**
+     * Reads every record that is still only in the snapshot.
+     */
+    private synchronized void loadAll() {
+        Snapshot<T> s = snapshot;
+        if (!s.isEmpty()) {
+            for (String key : s.keySet()) {
+                records.computeIfAbsent(key, s::get);
+            }
+            snapshot = Snapshot.empty();
+        }
+    }
+}
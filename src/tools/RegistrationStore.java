@@ -0,0 +1,211 @@
+package tools;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import model.Registration;
+
+/**
+ * This class provides methods for appending and loading registration records
+ * from a compact binary file. Version 2 files hold the registration dates as
+ * epoch days; version 1 files, which hold them as epoch milliseconds, are
+ * still read and appended to until they are replaced. Appends and
+ * replacements of the same store never overlap.
+ *
+ * @author Nguyen Truong Tho
+ */
+public class RegistrationStore {
+
+    private static final int MAGIC = 0x41505247;
+    private static final short VERSION = 2;
+    private static final long NO_DATE = Long.MIN_VALUE;
+    private final String fileName;
+
+    /**
+     * Initializes a new instance of the RegistrationStore class.
+     *
+     * @param fileName The name of the file that holds the records.
+     */
+    public RegistrationStore(String fileName) {
+        this.fileName = fileName;
+    }
+
+    /**
+     * Checks whether the store file exists.
+     *
+     * @return true if the file exists; otherwise, false.
+     */
+    public boolean exists() {
+        return new File(fileName).exists();
+    }
+
+    /**
+     * Checks whether the store file is in an older format than the one
+     * written by replaceAll.
+     *
+     * @return true if the file is in an older format; otherwise, false.
+     * @throws IOException if the file cannot be read.
+     */
+    public boolean isOldVersion() throws IOException {
+        return new File(fileName).length() > 0 && readVersion() < VERSION;
+    }
+
+    private short readVersion() throws IOException {
+        try (DataInputStream in = new DataInputStream(new FileInputStream(fileName))) {
+            short version;
+            if (in.readInt() != MAGIC || (version = in.readShort()) < 1 || version > VERSION) {
+                throw new IOException(fileName + " is not a registration store");
+            }
+            return version;
+        }
+    }
+
+    /**
+     * Appends registrations to the end of the store file, in the format of
+     * the file, and forces them to disk.
+     *
+     * @param list The registrations to append.
+     * @throws IOException if there is an error during writing.
+     */
+    public synchronized void append(List<Registration> list) throws IOException {
+        boolean isNew = new File(fileName).length() == 0;
+        short version = isNew ? VERSION : readVersion();
+        try (FileChannel fc = FileChannel.open(Paths.get(fileName), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(fc)));
+            if (isNew) {
+                out.writeInt(MAGIC);
+                out.writeShort(VERSION);
+            }
+            writeAll(out, list, version);
+            out.flush();
+            fc.force(true);
+        }
+    }
+
+    /**
+     * Replaces the content of the store file with a list of registrations.
+     * The records are written to a temporary file that is forced to disk and
+     * then replaces the store file, so the file is never left half written.
+     *
+     * @param list The registrations to keep.
+     * @throws IOException if there is an error during writing.
+     */
+    public synchronized void replaceAll(List<Registration> list) throws IOException {
+        Path target = Paths.get(fileName).toAbsolutePath();
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel fc = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(fc)));
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            writeAll(out, list, VERSION);
+            out.flush();
+            fc.force(true);
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Appends a registration to the end of the store file.
+     *
+     * @param r The registration to append.
+     * @throws IOException if there is an error during writing.
+     */
+    public void append(Registration r) throws IOException {
+        List<Registration> list = new ArrayList<>();
+        list.add(r);
+        append(list);
+    }
+
+    /**
+     * Loads all registrations from the store file in one sequential read. A
+     * record cut off at the end of the file is dropped so that later appends
+     * start on a record boundary.
+     *
+     * @return The list of registrations in the order they were appended.
+     */
+    public List<Registration> loadAll() {
+        List<Registration> list = new ArrayList<>();
+        File f = new File(fileName);
+        if (f.length() > 0) {
+            try {
+                byte[] data = Files.readAllBytes(f.toPath());
+                ByteArrayInputStream bin = new ByteArrayInputStream(data);
+                DataInputStream in = new DataInputStream(bin);
+                short version;
+                if (in.readInt() != MAGIC || (version = in.readShort()) < 1 || version > VERSION) {
+                    throw new IOException(fileName + " is not a registration store");
+                }
+                int end = data.length - bin.available();
+                try {
+                    while (bin.available() > 0) {
+                        String studentId = in.readUTF();
+                        String programId = in.readUTF();
+                        long date = in.readLong();
+                        String parentMail = in.readUTF();
+                        String parentPhone = in.readUTF();
+                        String location = in.readUTF();
+                        list.add(new Registration(studentId, programId, toDate(date, version), parentMail, parentPhone, location));
+                        end = data.length - bin.available();
+                    }
+                } catch (EOFException ex) {
+                    try (RandomAccessFile raf = new RandomAccessFile(f, "rw")) {
+                        raf.setLength(end);
+                    }
+                }
+            } catch (IOException ex) {
+                System.out.println(ex);
+            }
+        }
+        return list;
+    }
+
+    private static LocalDate toDate(long date, short version) {
+        if (date == NO_DATE) {
+            return null;
+        }
+        return version == 1 ? Dates.fromEpochMilli(date) : LocalDate.ofEpochDay(date);
+    }
+
+    private static long fromDate(LocalDate date, short version) {
+        if (date == null) {
+            return NO_DATE;
+        }
+        return version == 1 ? Dates.toDate(date).getTime() : date.toEpochDay();
+    }
+
+    private static void writeAll(DataOutputStream out, List<Registration> list, short version) throws IOException {
+        for (Registration r : list) {
+            writeString(out, r.getStudentId());
+            writeString(out, r.getProgramId());
+            out.writeLong(fromDate(r.getRegistrationDate(), version));
+            writeString(out, r.getParentMail());
+            writeString(out, r.getParentPhone());
+            writeString(out, r.getLocation());
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String str) throws IOException {
+        out.writeUTF(str == null ? "" : str);
+    }
+}
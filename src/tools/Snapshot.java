@@ -0,0 +1,159 @@
+package tools;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Represents the records of a data file that are decoded one at a time on
+ * request. The records stay in a buffer read from the file, and an index
+ * gives the position of each record by its key.
+ *
+ * @author Nguyen Truong Tho
+ * @param <T> The type of the records.
+ */
+public class Snapshot<T> {
+
+    private final ByteBuffer buffer;
+    private final Map<String, Integer> offsets;
+    private final Codec<T> codec;
+
+    /**
+     * Initializes a new instance of the Snapshot class.
+     *
+     * @param buffer The buffer that holds the records.
+     * @param offsets The position of each record in the buffer by its key.
+     * @param codec The codec that reads the records.
+     */
+    Snapshot(ByteBuffer buffer, Map<String, Integer> offsets, Codec<T> codec) {
+        this.buffer = buffer;
+        this.offsets = offsets;
+        this.codec = codec;
+    }
+
+    /**
+     * Creates a snapshot with no records.
+     *
+     * @param <T> The type of the records.
+     * @return The empty snapshot.
+     */
+    public static <T> Snapshot<T> empty() {
+        return new Snapshot<>(ByteBuffer.allocate(0), Collections.<String, Integer>emptyMap(), null);
+    }
+
+    /**
+     * Creates a snapshot of records that are already in memory.
+     *
+     * @param <T> The type of the records.
+     * @param list The records.
+     * @param codec The codec that writes and reads the records.
+     * @return The snapshot of the records.
+     * @throws IOException if there is an error during encoding.
+     */
+    static <T> Snapshot<T> of(List<T> list, Codec<T> codec) throws IOException {
+        ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bout);
+        Map<String, Integer> offsets = new HashMap<>();
+        for (T obj : list) {
+            offsets.put(codec.getKey(obj), out.size());
+            codec.write(out, obj);
+        }
+        return new Snapshot<>(ByteBuffer.wrap(bout.toByteArray()), offsets, codec);
+    }
+
+    /**
+     * Gets the number of records.
+     *
+     * @return The number of records.
+     */
+    public int size() {
+        return offsets.size();
+    }
+
+    /**
+     * Checks whether the snapshot has no records.
+     *
+     * @return true if there are no records; otherwise, false.
+     */
+    public boolean isEmpty() {
+        return offsets.isEmpty();
+    }
+
+    /**
+     * Checks whether the snapshot has a record with a key.
+     *
+     * @param key The key of the record.
+     * @return true if the record exists; otherwise, false.
+     */
+    public boolean contains(Object key) {
+        return offsets.containsKey(key);
+    }
+
+    /**
+     * Gets the keys of all records.
+     *
+     * @return The keys of the records.
+     */
+    public Set<String> keySet() {
+        return Collections.unmodifiableSet(offsets.keySet());
+    }
+
+    /**
+     * Decodes the record with a key.
+     *
+     * @param key The key of the record.
+     * @return A new object of the record, or null if there is no record.
+     */
+    public T get(Object key) {
+        Integer offset = offsets.get(key);
+        if (offset == null) {
+            return null;
+        }
+        ByteBuffer record = buffer.duplicate();
+        record.position(offset);
+        try {
+            return codec.read(new DataInputStream(new BufferInputStream(record)));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Reads the remaining bytes of a buffer as a stream.
+     */
+    private static class BufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        BufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+    }
+}
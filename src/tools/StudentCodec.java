@@ -0,0 +1,42 @@
+package tools;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import model.Student;
+
+/**
+ * Provides the binary encoding of Student objects.
+ *
+ * @author Nguyen Truong Tho
+ */
+public class StudentCodec implements Codec<Student> {
+
+    @Override
+    public void write(DataOutput out, Student st) throws IOException {
+        Codec.writeString(out, st.getId());
+        Codec.writeString(out, st.getName());
+        Codec.writeString(out, st.getMajor());
+        Codec.writeString(out, st.getEmail());
+        Codec.writeString(out, st.getPhone());
+        Codec.writeString(out, st.getPassport());
+        Codec.writeString(out, st.getAddress());
+    }
+
+    @Override
+    public Student read(DataInput in) throws IOException {
+        String id = Codec.readString(in);
+        String name = Codec.readString(in);
+        String major = Codec.readString(in);
+        String email = Codec.readString(in);
+        String phone = Codec.readString(in);
+        String passport = Codec.readString(in);
+        String address = Codec.readString(in);
+        return new Student(id, name, major, email, phone, passport, address);
+    }
+
+    @Override
+    public String getKey(Student st) {
+        return st.getId();
+    }
+}
@@ -0,0 +1,46 @@
+package tools;
+
+/**
+ * Describes a value that is not valid.
+ *
+ * @author Nguyen Truong Tho
+ */
+public class ValidationError {
+
+    private final String field;
+    private final String message;
+
+    /**
+     * Initializes a new instance of the ValidationError class.
+     *
+     * @param field The name of the value.
+     * @param message The error message.
+     */
+    public ValidationError(String field, String message) {
+        this.field = field;
+        this.message = message;
+    }
+
+    /**
+     * Get the value of field
+     *
+     * @return the value of field
+     */
+    public String getField() {
+        return field;
+    }
+
+    /**
+     * Get the value of message
+     *
+     * @return the value of message
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return field + ": " + message;
+    }
+}
@@ -0,0 +1,219 @@
+package tools;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Validates the values entered by the users or read from files. The formats
+ * that are checked most often, the IDs, phone numbers, dates and numbers, are
+ * checked by hand, character by character; the others use patterns that are
+ * compiled once and shared by every thread. A Validator object collects the
+ * errors of several values, so that a caller can check a whole record without
+ * throwing exceptions.
+ *
+ * @author Nguyen Truong Tho
+ */
+public class Validator {
+
+    private static final Pattern MAIL = Pattern.compile("^([0-9a-zA-Z.]+)([@])([0-9a-zA-Z.]+)$");
+    private static final Map<String, Pattern> patterns = new ConcurrentHashMap<>();
+
+    private final List<ValidationError> errors = new ArrayList<>();
+
+    /**
+     * Gets the compiled pattern of a regular expression. Each regular
+     * expression is compiled only once.
+     *
+     * @param regex The regular expression.
+     * @return The compiled pattern.
+     */
+    public static Pattern pattern(String regex) {
+        Pattern pt = patterns.get(regex);
+        if (pt == null) {
+            pt = patterns.computeIfAbsent(regex, Pattern::compile);
+        }
+        return pt;
+    }
+
+    /**
+     * Checks if a string is a student ID: a major (SE, SB, GD or MC, in any
+     * case) followed by 6 digits.
+     *
+     * @param id The string to check.
+     * @return True if the string is a student ID, false otherwise.
+     */
+    public static boolean isStudentId(String id) {
+        return id != null && id.length() == 8 && isMajor(id.substring(0, 2)) && isDigits(id, 2, 8);
+    }
+
+    /**
+     * Checks if a string is a major: SE, SB, GD or MC, in any case.
+     *
+     * @param major The string to check.
+     * @return True if the string is a major, false otherwise.
+     */
+    public static boolean isMajor(String major) {
+        if (major == null || major.length() != 2) {
+            return false;
+        }
+        char a = Character.toUpperCase(major.charAt(0));
+        char b = Character.toUpperCase(major.charAt(1));
+        return (a == 'S' && (b == 'E' || b == 'B')) || (a == 'G' && b == 'D') || (a == 'M' && b == 'C');
+    }
+
+    /**
+     * Checks if a string is a program ID: a letter followed by 3 or 4 digits.
+     *
+     * @param id The string to check.
+     * @return True if the string is a program ID, false otherwise.
+     */
+    public static boolean isProgramId(String id) {
+        return id != null && (id.length() == 4 || id.length() == 5) && isLetter(id.charAt(0)) && isDigits(id, 1, id.length());
+    }
+
+    /**
+     * Checks if a string is a phone number: 0, a digit from 1 to 9, then 8
+     * digits.
+     *
+     * @param phone The string to check.
+     * @return True if the string is a phone number, false otherwise.
+     */
+    public static boolean isPhone(String phone) {
+        return phone != null && phone.length() == 10 && phone.charAt(0) == '0' && phone.charAt(1) != '0' && isDigits(phone, 1, 10);
+    }
+
+    /**
+     * Checks if a string is an email address with a specific domain.
+     *
+     * @param email The string to check.
+     * @param domain The domain that the email address should end with.
+     * @return True if the string is a valid email address, false otherwise.
+     */
+    public static boolean isMail(String email, String domain) {
+        return email != null && email.endsWith(domain) && MAIL.matcher(email).find();
+    }
+
+    /**
+     * Checks if a string is a number of 1 to 9 digits, so that it fits in an
+     * int.
+     *
+     * @param number The string to check.
+     * @return True if the string is a number, false otherwise.
+     */
+    public static boolean isNumber(String number) {
+        return number != null && number.length() >= 1 && number.length() <= 9 && isDigits(number, 0, number.length());
+    }
+
+    /**
+     * Checks if a string is a name, which only includes letters, spaces and,
+     * if allowed, digits.
+     *
+     * @param name The string to check.
+     * @param digits Whether the name may include digits.
+     * @return True if the string is a name, false otherwise.
+     */
+    public static boolean isName(String name, boolean digits) {
+        if (name == null || name.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (!isLetter(c) && c != ' ' && !(digits && c >= '0' && c <= '9')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks if a string is a date in dd/mm/yyyy format from the years 1900
+     * to 2099. The separators may also be '-', '.' or ' '.
+     *
+     * @param date The string to check.
+     * @return True if the string is a valid date, false otherwise.
+     */
+    public static boolean isDate(String date) {
+        if (date == null || date.length() != 10 || !isSeparator(date.charAt(2)) || !isSeparator(date.charAt(5))
+                || !isDigits(date, 0, 2) || !isDigits(date, 3, 5) || !isDigits(date, 6, 10)) {
+            return false;
+        }
+        int day = (date.charAt(0) - '0') * 10 + date.charAt(1) - '0';
+        int month = (date.charAt(3) - '0') * 10 + date.charAt(4) - '0';
+        int century = (date.charAt(6) - '0') * 10 + date.charAt(7) - '0';
+        int year = century * 100 + (date.charAt(8) - '0') * 10 + date.charAt(9) - '0';
+        if ((century != 19 && century != 20) || month < 1 || month > 12 || day < 1) {
+            return false;
+        }
+        int maxDay = 30;
+        if (month == 1 || month == 3 || month == 5 || month == 7 || month == 8 || month == 10 || month == 12) {
+            maxDay = 31;
+        } else if (month == 2) {
+            maxDay = year % 400 == 0 || (year % 4 == 0 && year % 100 != 0) ? 29 : 28;
+        }
+        return day <= maxDay;
+    }
+
+    private static boolean isSeparator(char c) {
+        return c == '/' || c == '-' || c == '.' || c == ' ';
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isDigits(String s, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Records an error if a check has failed.
+     *
+     * @param valid The result of the check.
+     * @param field The name of the checked value.
+     * @param message The error message.
+     * @return This Validator, to chain the checks.
+     */
+    public Validator check(boolean valid, String field, String message) {
+        if (!valid) {
+            errors.add(new ValidationError(field, message));
+        }
+        return this;
+    }
+
+    /**
+     * Checks whether every check has passed.
+     *
+     * @return true if no error has been recorded; otherwise, false.
+     */
+    public boolean isValid() {
+        return errors.isEmpty();
+    }
+
+    /**
+     * Get the value of errors
+     *
+     * @return the read-only list of errors, in the order of the checks
+     */
+    public List<ValidationError> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    /**
+     * Gets the message of the first error.
+     *
+     * @return The message, or null if there are no errors.
+     */
+    public String getMessage() {
+        return errors.isEmpty() ? null : errors.get(0).getMessage();
+    }
+}